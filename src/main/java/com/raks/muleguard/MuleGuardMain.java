@@ -1,7 +1,13 @@
 package com.raks.muleguard;
 
+import com.raks.muleguard.engine.CompiledRule;
 import com.raks.muleguard.engine.ReportGenerator;
+import com.raks.muleguard.engine.FileContentCache;
+import com.raks.muleguard.engine.IgnoredFolders;
+import com.raks.muleguard.engine.PomResolver;
+import com.raks.muleguard.engine.RuleCompiler;
 import com.raks.muleguard.engine.ValidationEngine;
+import com.raks.muleguard.engine.XmlParseStatistics;
 import com.raks.muleguard.model.Rule;
 import com.raks.muleguard.model.ValidationReport;
 import org.yaml.snakeyaml.Yaml;
@@ -17,6 +23,11 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.swing.JFileChooser;
@@ -26,6 +37,9 @@ public class MuleGuardMain {
     public static void main(String[] args) {
         Path parentFolder;
         String configFilePath = null;
+        int threads = 1;
+        int checkThreads = 1;
+        long cacheMb = FileContentCache.DEFAULT_MAX_BYTES / (1024 * 1024);
 
         if (args.length == 0 || args[0].isEmpty()) {
             parentFolder = showFolderDialog();
@@ -36,14 +50,49 @@ public class MuleGuardMain {
         } else if (args.length >= 2 && "-p".equals(args[0])) {
             parentFolder = Paths.get(args[1]);
 
-            // Check for optional --config parameter
-            if (args.length >= 4 && "--config".equals(args[2])) {
-                configFilePath = args[3];
-                System.out.println("Using custom config file: " + configFilePath);
+            // Optional parameters: --config <rules.yaml>, --threads <N>, --check-threads <N>
+            // and --cache-mb <N>
+            for (int i = 2; i < args.length; i++) {
+                if ("--config".equals(args[i]) && i + 1 < args.length) {
+                    configFilePath = args[++i];
+                    System.out.println("Using custom config file: " + configFilePath);
+                } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                    try {
+                        threads = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        threads = 0;
+                    }
+                    if (threads < 1) {
+                        System.err.println("Error: --threads must be a positive number, got: " + args[i]);
+                        return;
+                    }
+                } else if ("--check-threads".equals(args[i]) && i + 1 < args.length) {
+                    try {
+                        checkThreads = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        checkThreads = 0;
+                    }
+                    if (checkThreads < 1) {
+                        System.err.println("Error: --check-threads must be a positive number, got: " + args[i]);
+                        return;
+                    }
+                } else if ("--cache-mb".equals(args[i]) && i + 1 < args.length) {
+                    try {
+                        cacheMb = Long.parseLong(args[++i]);
+                    } catch (NumberFormatException e) {
+                        cacheMb = -1;
+                    }
+                    if (cacheMb < 0) {
+                        System.err.println("Error: --cache-mb must be zero or a positive number, got: " + args[i]);
+                        return;
+                    }
+                } else {
+                    System.err.println("Ignoring unknown option: " + args[i]);
+                }
             }
         } else {
             System.err.println(
-                    "Usage: java -jar muleguard.jar -p <folder> [--config <rules.yaml>]   OR   double-click to select folder");
+                    "Usage: java -jar muleguard.jar -p <folder> [--config <rules.yaml>] [--threads <N>] [--check-threads <N>] [--cache-mb <N>]   OR   double-click to select folder");
             return;
         }
 
@@ -80,11 +129,25 @@ public class MuleGuardMain {
         List<String> exactIgnoredNames = (List<String>) ignoredFoldersConfig.get("exactNames");
         @SuppressWarnings("unchecked")
         List<String> ignoredPrefixes = (List<String>) ignoredFoldersConfig.get("prefixes");
+        // Applied to the API folders below and, while indexing, to folders at any depth
+        IgnoredFolders ignoredFolders = new IgnoredFolders(exactIgnoredNames, ignoredPrefixes);
 
         int configRuleStart = configWrapper.getConfig().getRules().get("start");
         int configRuleEnd = configWrapper.getConfig().getRules().get("end");
         List<String> globalEnvironments = configWrapper.getConfig().getEnvironments();
 
+        // Rules are compiled once per run into two read-only plans (code projects and
+        // config projects) shared by every API; configuration errors surface here, once.
+        List<CompiledRule> codeRules = RuleCompiler.compile(
+                selectRules(allRules, false, configRuleStart, configRuleEnd, globalEnvironments));
+        List<CompiledRule> configRules = RuleCompiler.compile(
+                selectRules(allRules, true, configRuleStart, configRuleEnd, globalEnvironments));
+        List<String> configErrors = new ArrayList<>(RuleCompiler.getConfigErrors(codeRules));
+        configErrors.addAll(RuleCompiler.getConfigErrors(configRules));
+        for (String error : configErrors) {
+            System.err.println("Rule configuration error: " + error);
+        }
+
         List<ApiResult> results = new ArrayList<>();
         Path reportsRoot = parentFolder.resolve("muleguard-reports");
 
@@ -95,23 +158,17 @@ public class MuleGuardMain {
             System.exit(1);
         }
 
+        List<Path> apiDirs;
         try (var stream = Files.list(parentFolder)) {
-            stream.filter(Files::isDirectory)
+            apiDirs = stream.filter(Files::isDirectory)
                     .filter(dir -> {
                         String name = dir.getFileName().toString();
 
-                        // Check exact ignored folder names
-                        if (exactIgnoredNames.contains(name)) {
+                        // Check ignored folder names and prefixes
+                        if (ignoredFolders.isIgnored(name)) {
                             return false;
                         }
 
-                        // Check ignored prefixes
-                        for (String prefix : ignoredPrefixes) {
-                            if (name.startsWith(prefix)) {
-                                return false;
-                            }
-                        }
-
                         // Check if it's a Mule API project based on matchMode
                         boolean isCodeProject;
                         if ("ALL".equalsIgnoreCase(matchMode)) {
@@ -129,70 +186,85 @@ public class MuleGuardMain {
 
                         return isCodeProject || isConfigProject;
                     })
-                    .forEach(apiDir -> {
-                        String apiName = apiDir.getFileName().toString();
-                        boolean isConfigProject = apiName.matches(configFolderPattern);
-                        System.out.printf("Validating %s: %s%n", isConfigProject ? "Config" : "API", apiName);
-
-                        List<Rule> applicableRules = allRules.stream()
-                                .filter(Rule::isEnabled)
-                                .filter(rule -> {
-                                    int ruleIdNum = Integer.parseInt(rule.getId().replace("RULE-", ""));
-                                    boolean isConfigRule = (ruleIdNum >= configRuleStart && ruleIdNum <= configRuleEnd);
-
-                                    if (isConfigRule && globalEnvironments != null && !globalEnvironments.isEmpty()) {
-                                        rule.getChecks().forEach(check -> {
-                                            if (check.getParams() == null) {
-                                                check.setParams(new java.util.HashMap<>());
-                                            }
-
-                                            // Check if environments parameter exists and contains "ALL"
-                                            @SuppressWarnings("unchecked")
-                                            List<String> envs = (List<String>) check.getParams().get("environments");
-
-                                            if (envs != null && envs.size() == 1
-                                                    && "ALL".equalsIgnoreCase(envs.get(0))) {
-                                                // Replace "ALL" with global environment list
-                                                check.getParams().put("environments",
-                                                        new ArrayList<>(globalEnvironments));
-                                            } else if (envs == null || envs.isEmpty()) {
-                                                // If no environments specified, use global list
-                                                check.getParams().put("environments",
-                                                        new ArrayList<>(globalEnvironments));
-                                            }
-                                            // Otherwise, keep the specific environments list as-is
-                                        });
-                                    }
-
-                                    return isConfigProject == isConfigRule;
-                                }).collect(Collectors.toList());
-
-                        ValidationEngine engine = new ValidationEngine(applicableRules, apiDir);
-                        ValidationReport report = engine.validate();
-                        report.projectPath = apiName + " (" + apiDir.toString() + ")";
-
-                        Path apiReportDir = reportsRoot.resolve(apiName);
-
-                        try {
-                            Files.createDirectories(apiReportDir);
-                        } catch (IOException e) {
-                            System.err.println("Failed to create report dir for " + apiName + ": " + e.getMessage());
-                            return;
-                        }
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            System.err.println("Error scanning folders: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        }
+
+        // Checks of a single project can run concurrently on one pool shared by all
+        // projects (separate from the per-API workers, so waiting on checks never
+        // starves the pool that runs them).
+        ExecutorService checkPool = checkThreads > 1 ? Executors.newFixedThreadPool(checkThreads) : null;
+
+        // File contents are cached for the whole run (bounded, LRU), so files read
+        // by several checks are loaded and decoded only once.
+        FileContentCache contentCache = new FileContentCache(cacheMb * 1024 * 1024);
+        XmlParseStatistics parseStatistics = new XmlParseStatistics();
+        // Parent POMs are resolved offline (workspace, then local repository) and
+        // shared by all projects, for rules that ask for the effective POM.
+        PomResolver pomResolver = new PomResolver(apiDirs, PomResolver.defaultLocalRepository());
+
+        List<Callable<ValidationReport>> tasks = new ArrayList<>();
+        for (Path apiDir : apiDirs) {
+            boolean isConfigProject = apiDir.getFileName().toString().matches(configFolderPattern);
+            List<CompiledRule> applicableRules = isConfigProject ? configRules : codeRules;
+            tasks.add(() -> new ValidationEngine(applicableRules, apiDir, checkPool, contentCache,
+                    parseStatistics, pomResolver, ignoredFolders).validate());
+        }
+
+        ExecutorService workers = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            // In parallel mode all APIs are submitted up front; results are still consumed
+            // (and reported) in discovery order so the output is deterministic.
+            List<Future<ValidationReport>> futures = new ArrayList<>();
+            if (workers != null) {
+                System.out.printf("Validating %d project(s) using %d threads%n%n", tasks.size(), threads);
+                for (Callable<ValidationReport> task : tasks) {
+                    futures.add(workers.submit(task));
+                }
+            }
 
-                        ReportGenerator.generateIndividualReports(report, apiReportDir);
+            for (int i = 0; i < apiDirs.size(); i++) {
+                Path apiDir = apiDirs.get(i);
+                String apiName = apiDir.getFileName().toString();
+                boolean isConfigProject = apiName.matches(configFolderPattern);
+                System.out.printf("Validating %s: %s%n", isConfigProject ? "Config" : "API", apiName);
 
-                        int passed = report.passed.size();
-                        int failed = report.failed.size();
-                        results.add(new ApiResult(apiName, apiDir, passed, failed, apiReportDir));
+                ValidationReport report = workers != null ? awaitReport(futures.get(i)) : tasks.get(i).call();
+                report.projectPath = apiName + " (" + apiDir.toString() + ")";
 
-                        System.out.println("   " + (failed == 0 ? "PASS" : "FAIL") +
-                                " | Passed: " + passed + " | Failed: " + failed + "\n");
-                    });
+                Path apiReportDir = reportsRoot.resolve(apiName);
+
+                try {
+                    Files.createDirectories(apiReportDir);
+                } catch (IOException e) {
+                    System.err.println("Failed to create report dir for " + apiName + ": " + e.getMessage());
+                    continue;
+                }
+
+                ReportGenerator.generateIndividualReports(report, apiReportDir);
+
+                int passed = report.passed.size();
+                int failed = report.failed.size();
+                results.add(new ApiResult(apiName, apiDir, passed, failed, apiReportDir));
+
+                System.out.println("   " + (failed == 0 ? "PASS" : "FAIL") +
+                        " | Passed: " + passed + " | Failed: " + failed + "\n");
+            }
         } catch (Exception e) {
             System.err.println("Error scanning folders: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            if (checkPool != null) {
+                checkPool.shutdownNow();
+            }
         }
 
         try {
@@ -210,11 +282,72 @@ public class MuleGuardMain {
         System.out.println("BATCH VALIDATION COMPLETE!");
         System.out.println("Consolidated report: " + reportsRoot.resolve("CONSOLIDATED-REPORT.html"));
         System.out.println("Individual reports in: " + reportsRoot);
+        System.out.println(contentCache.getStatistics());
+        System.out.println(parseStatistics.getStatistics());
 
         // System.exit(results.stream().mapToInt(r -> r.failed).sum() > 0 ? 1 : 0); //
         // Commented out to allow GUI to continue running
     }
 
+    /**
+     * Selects the enabled rules that apply to a kind of project (config rules for
+     * config projects, code rules otherwise) and returns copies of them with the
+     * global environment list injected into config rule checks.
+     */
+    private static List<Rule> selectRules(List<Rule> allRules, boolean isConfigProject, int configRuleStart,
+            int configRuleEnd, List<String> globalEnvironments) {
+        List<Rule> applicableRules = new ArrayList<>();
+
+        for (Rule sharedRule : allRules) {
+            if (!sharedRule.isEnabled()) {
+                continue;
+            }
+
+            int ruleIdNum = Integer.parseInt(sharedRule.getId().replace("RULE-", ""));
+            boolean isConfigRule = (ruleIdNum >= configRuleStart && ruleIdNum <= configRuleEnd);
+            if (isConfigProject != isConfigRule) {
+                continue;
+            }
+
+            Rule rule = sharedRule.copy();
+            if (isConfigRule && globalEnvironments != null && !globalEnvironments.isEmpty()) {
+                rule.getChecks().forEach(check -> {
+                    if (check.getParams() == null) {
+                        check.setParams(new java.util.HashMap<>());
+                    }
+
+                    // Check if environments parameter exists and contains "ALL"
+                    @SuppressWarnings("unchecked")
+                    List<String> envs = (List<String>) check.getParams().get("environments");
+
+                    if (envs != null && envs.size() == 1
+                            && "ALL".equalsIgnoreCase(envs.get(0))) {
+                        // Replace "ALL" with global environment list
+                        check.getParams().put("environments",
+                                new ArrayList<>(globalEnvironments));
+                    } else if (envs == null || envs.isEmpty()) {
+                        // If no environments specified, use global list
+                        check.getParams().put("environments",
+                                new ArrayList<>(globalEnvironments));
+                    }
+                    // Otherwise, keep the specific environments list as-is
+                });
+            }
+            applicableRules.add(rule);
+        }
+
+        return applicableRules;
+    }
+
+    private static ValidationReport awaitReport(Future<ValidationReport> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
     private static RootWrapper loadConfig(String configFilePath) {
         LoaderOptions options = new LoaderOptions();
         Constructor constructor = new Constructor(RootWrapper.class, options);
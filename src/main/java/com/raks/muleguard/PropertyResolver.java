@@ -1,22 +1,58 @@
 package com.raks.muleguard;
 
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+/**
+ * Resolves Mule property placeholders against the project's configuration
+ * properties: the {@code .properties} and {@code .yaml}/{@code .yml} files of
+ * {@code src/main/resources}. YAML files are flattened to dotted keys
+ * ({@code http: {port: 8081}} is {@code http.port}), as Mule reads them; lists
+ * of values are joined with commas. Each file is read once, when the resolver
+ * is built once per project (see
+ * {@link com.raks.muleguard.engine.ProjectContext#getPropertyResolver()}), and
+ * shared by all checks; resolved keys and values are memoized.
+ *
+ * Placeholders may be embedded ({@code ${a}-${b}}) and nested
+ * ({@code ${${env}.host}}), and property values may themselves contain
+ * placeholders. A placeholder that refers to itself, directly or through
+ * other properties, does not resolve.
+ */
 public class PropertyResolver {
 
-    private final Properties properties = new Properties();
+    // #[p('property.name')] or #[p("property.name")] with optional whitespace
+    private static final Pattern P_FUNCTION = Pattern.compile("^#\\[\\s*p\\s*\\(\\s*['\"]([^'\"]+)['\"]\\s*\\)\\s*\\]$");
+
+    private final Map<String, String> properties = new HashMap<>();
+    private final Map<String, Optional<String>> resolvedKeys = new ConcurrentHashMap<>();
+    private final Map<String, Optional<String>> resolvedValues = new ConcurrentHashMap<>();
 
     /**
-     * Scans src/main/resources for .properties files and loads them.
-     * 
+     * Scans src/main/resources for .properties and YAML files and loads them.
+     *
      * @param projectDir The root directory of the Mule project.
      */
     public PropertyResolver(Path projectDir) {
@@ -26,8 +62,14 @@ public class PropertyResolver {
         }
 
         try (Stream<Path> files = Files.walk(resourcesDir)) {
-            files.filter(file -> file.toString().toLowerCase().endsWith(".properties"))
-                    .forEach(this::loadPropertiesFromFile);
+            files.forEach(file -> {
+                String name = file.toString().toLowerCase();
+                if (name.endsWith(".properties")) {
+                    loadPropertiesFromFile(file);
+                } else if (name.endsWith(".yaml") || name.endsWith(".yml")) {
+                    loadYamlFromFile(file);
+                }
+            });
         } catch (IOException e) {
             System.err.println("Warning: Could not scan for property files: " + e.getMessage());
         }
@@ -35,50 +77,157 @@ public class PropertyResolver {
 
     private void loadPropertiesFromFile(Path propertyFile) {
         try (InputStream input = new FileInputStream(propertyFile.toFile())) {
-            properties.load(input);
+            Properties loaded = new Properties();
+            loaded.load(input);
+            loaded.forEach((key, value) -> properties.put((String) key, (String) value));
         } catch (IOException e) {
             System.err.println("Warning: Could not load property file: " + propertyFile + ". Error: " + e.getMessage());
         }
     }
 
+    private void loadYamlFromFile(Path yamlFile) {
+        try (Reader input = Files.newBufferedReader(yamlFile)) {
+            Object document = newYaml().load(input);
+            if (document instanceof Map) {
+                flatten("", (Map<?, ?>) document);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not load YAML file: " + yamlFile + ". Error: " + e.getMessage());
+        }
+    }
+
     /**
-     * Resolves a value, which can be a direct value or a property placeholder like
-     * ${key}.
-     * 
+     * Project files are not trusted: plain maps, lists and scalars only. Scalars
+     * are kept as written (no numbers, booleans or dates), as Mule reads them.
+     */
+    private static Yaml newYaml() {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        DumperOptions dumperOptions = new DumperOptions();
+        return new Yaml(new SafeConstructor(loaderOptions), new Representer(dumperOptions), dumperOptions,
+                loaderOptions, new Resolver() {
+                    @Override
+                    protected void addImplicitResolvers() {
+                    }
+                });
+    }
+
+    private void flatten(String prefix, Map<?, ?> map) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String key = prefix + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                flatten(key + ".", (Map<?, ?>) value);
+            } else if (value instanceof List) {
+                List<String> values = new ArrayList<>();
+                for (Object item : (List<?>) value) {
+                    values.add(item == null ? "" : String.valueOf(item));
+                }
+                properties.put(key, String.join(",", values));
+            } else {
+                properties.put(key, value == null ? "" : String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * Resolves a value, which can be a direct value, a property placeholder like
+     * ${key} or #[p('key')], or text with embedded placeholders.
+     *
      * @param value The string value to resolve.
-     * @return The resolved property value, or the original value if it's not a
-     *         placeholder.
+     * @return The resolved value, the original value if it has no
+     *         placeholders, or null if a placeholder cannot be resolved.
      */
     public String resolve(String value) {
         if (value == null) {
             return null;
         }
+        return resolvedValues.computeIfAbsent(value, v -> Optional.ofNullable(resolveValue(v))).orElse(null);
+    }
 
-        // Pattern for ${property.name}
-        Pattern dollarPattern = Pattern.compile("^\\$\\{([^}]+)\\}$");
-        Matcher dollarMatcher = dollarPattern.matcher(value.trim());
-        if (dollarMatcher.matches()) {
-            String key = dollarMatcher.group(1);
-            String resolved = properties.getProperty(key);
-            // Return null if property not found (instead of returning the placeholder)
-            return resolved;
+    private String resolveValue(String value) {
+        String trimmed = value.trim();
+        Matcher pFunctionMatcher = P_FUNCTION.matcher(trimmed);
+        if (pFunctionMatcher.matches()) {
+            return resolveKey(pFunctionMatcher.group(1), new HashSet<>());
+        }
+        if (trimmed.startsWith("${") && placeholderEnd(trimmed, 0) == trimmed.length()) {
+            // Whitespace around a single placeholder is ignored
+            return replacePlaceholders(trimmed, new HashSet<>());
         }
+        return replacePlaceholders(value, new HashSet<>());
+    }
 
-        // Pattern for #[p('property.name')] or #[p("property.name")] with optional
-        // whitespace
-        Pattern pFunctionPattern = Pattern.compile("^#\\[\\s*p\\s*\\(\\s*['\"]([^'\"]+)['\"]\\s*\\)\\s*\\]$");
-        Matcher pFunctionMatcher = pFunctionPattern.matcher(value.trim());
-        if (pFunctionMatcher.matches()) {
-            String key = pFunctionMatcher.group(1);
-            String resolved = properties.getProperty(key);
-            // Return null if property not found (instead of returning the placeholder)
-            return resolved;
+    /**
+     * Returns the fully resolved value of a property, or null if it is not
+     * defined or refers to itself.
+     */
+    public String getProperty(String key) {
+        return resolveKey(key, new HashSet<>());
+    }
+
+    private String resolveKey(String key, Set<String> resolving) {
+        Optional<String> cached = resolvedKeys.get(key);
+        if (cached != null) {
+            return cached.orElse(null);
         }
+        String raw = properties.get(key);
+        if (raw == null || !resolving.add(key)) {
+            // Undefined, or a cycle through this key
+            return null;
+        }
+        String resolved = replacePlaceholders(raw, resolving);
+        resolving.remove(key);
+        if (resolved != null || resolving.isEmpty()) {
+            // A failure inside a cycle depends on where resolution started
+            resolvedKeys.putIfAbsent(key, Optional.ofNullable(resolved));
+        }
+        return resolved;
+    }
 
-        return value; // Not a placeholder, return original value
+    /**
+     * Replaces every ${...} in a text, innermost first, or returns null if
+     * one of them cannot be resolved.
+     */
+    private String replacePlaceholders(String text, Set<String> resolving) {
+        int start = text.indexOf("${");
+        if (start < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        int position = 0;
+        while (start >= 0) {
+            int end = placeholderEnd(text, start);
+            if (end < 0) {
+                // Unterminated: the rest is literal text
+                break;
+            }
+            String key = replacePlaceholders(text.substring(start + 2, end - 1), resolving);
+            String value = key != null ? resolveKey(key, resolving) : null;
+            if (value == null) {
+                return null;
+            }
+            result.append(text, position, start).append(value);
+            position = end;
+            start = text.indexOf("${", position);
+        }
+        return result.append(text, position, text.length()).toString();
     }
 
-    public String getProperty(String key) {
-        return properties.getProperty(key);
+    /**
+     * @return The index after the closing brace of the placeholder starting at
+     *         {@code start}, counting nested placeholders, or -1
+     */
+    private static int placeholderEnd(String text, int start) {
+        int depth = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '$' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
     }
-}
\ No newline at end of file
+}
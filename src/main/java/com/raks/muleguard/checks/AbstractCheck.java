@@ -1,12 +1,48 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
-import java.nio.file.Path;
 import java.util.List;
+import java.util.regex.PatternSyntaxException;
 
 public abstract class AbstractCheck {
-    public abstract CheckResult execute(Path projectRoot, Check check);
+    /**
+     * Called once per run, before any project is validated. Checks precompile
+     * the expressions they use here (they are memoized on the compiled check)
+     * and record configuration errors so they are reported once, up front.
+     *
+     * @param check The compiled check configuration
+     */
+    public void compile(CompiledCheck check) {
+    }
+
+    /**
+     * Executes the check against a project. A single instance of each check
+     * implementation is shared by all threads, so implementations must not keep
+     * per-execution state in fields.
+     *
+     * @param context Project root and the shared file index of the project
+     * @param check   The compiled check configuration
+     */
+    public abstract CheckResult execute(ProjectContext context, CompiledCheck check);
+
+    /**
+     * Precompiles regexes on the compiled check. Invalid ones are recorded as
+     * configuration errors; at execution time the check keeps its own fallback.
+     */
+    protected void compileRegexes(CompiledCheck check, List<String> regexes, int flags) {
+        if (regexes == null) {
+            return;
+        }
+        for (String regex : regexes) {
+            try {
+                check.getPattern(regex, flags);
+            } catch (PatternSyntaxException e) {
+                check.addConfigError("Invalid regex '" + regex + "': " + e.getDescription());
+            }
+        }
+    }
 
     protected CheckResult pass(String message) {
         return new CheckResult("", "", true, message);
@@ -24,7 +60,7 @@ public abstract class AbstractCheck {
      * @param check The check containing environment parameters
      * @return List of environments to process
      */
-    protected List<String> resolveEnvironments(Check check) {
+    protected List<String> resolveEnvironments(CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> environments = (List<String>) check.getParams().get("environments");
 
@@ -1,12 +1,22 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
 
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps check types to their implementations.
+ *
+ * Check implementations are stateless and thread-safe (all per-run state lives
+ * in {@link CompiledCheck}, all per-project state in the project context), so
+ * each implementation class is instantiated once and shared by every check,
+ * rule and project of the run.
+ */
 public class CheckFactory {
     private static Map<String, Class<? extends AbstractCheck>> registry = new HashMap<>();
+    private static final Map<Class<? extends AbstractCheck>, AbstractCheck> instances = new ConcurrentHashMap<>();
 
     static {
         // === GENERIC CONSOLIDATED CHECKS (New) ===
@@ -85,14 +95,25 @@ public class CheckFactory {
         registry.put("CLIENTIDMAP_VALIDATOR", ClientIDMapCheck.class);
     }
 
-    public static AbstractCheck create(Check check) {
+    /**
+     * @return The shared implementation of the check's type
+     */
+    public static AbstractCheck create(CompiledCheck check) {
         try {
             Class<? extends AbstractCheck> clazz = registry.get(check.getType());
             if (clazz == null)
                 throw new IllegalArgumentException("Unknown check type: " + check.getType());
-            return clazz.getDeclaredConstructor().newInstance();
+            return instances.computeIfAbsent(clazz, CheckFactory::instantiate);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create check: " + check.getType(), e);
         }
     }
+
+    private static AbstractCheck instantiate(Class<? extends AbstractCheck> clazz) {
+        try {
+            return clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
\ No newline at end of file
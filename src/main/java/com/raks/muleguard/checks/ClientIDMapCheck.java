@@ -1,6 +1,8 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.PropertyFileIndex;
 import com.raks.muleguard.model.CheckResult;
 
 import java.io.IOException;
@@ -10,7 +12,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
-import java.util.stream.Stream;
 
 /**
  * Specialized check for validating Truist authorization policy client ID
@@ -35,7 +36,8 @@ public class ClientIDMapCheck extends AbstractCheck {
             "secure::.+=\\^\\{.+=\\}");
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
+        Path projectRoot = context.getProjectRoot();
         @SuppressWarnings("unchecked")
         List<String> fileExtensions = (List<String>) check.getParams().get("fileExtensions");
         @SuppressWarnings("unchecked")
@@ -62,26 +64,19 @@ public class ClientIDMapCheck extends AbstractCheck {
         List<String> scannedFiles = new ArrayList<>();
         boolean foundMatch = false;
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesEnvironmentFile(path, finalEnvironments, fileExtensions))
-                    .toList();
+        try {
+            List<Path> matchingFiles = context.getFileIndex().environmentFiles(finalEnvironments, fileExtensions);
 
             for (Path file : matchingFiles) {
                 String relativePath = projectRoot.relativize(file).toString();
                 scannedFiles.add(relativePath);
 
-                String content = Files.readString(file);
-                String[] lines = content.split("\\r?\\n");
-
-                for (String line : lines) {
-                    line = line.trim();
-
-                    // Skip comments and empty lines
-                    if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
-                        continue;
-                    }
+                // Property lines (without comments) are parsed once per file and
+                // shared by all config checks
+                PropertyFileIndex index = context.getPropertyIndex(file);
+                for (int lineIndex = 0; lineIndex < index.getLineCount(); lineIndex++) {
+                    // A view of the line; copied only when it is reported
+                    CharSequence line = index.getLine(lineIndex);
 
                     // Choose pattern based on validation type
                     Pattern pattern = "SECURE".equalsIgnoreCase(validationType)
@@ -94,7 +89,7 @@ public class ClientIDMapCheck extends AbstractCheck {
 
                         // Additional validation for clientIDmap to check for double colons
                         if ("CLIENTIDMAP".equalsIgnoreCase(validationType)) {
-                            if (!validateClientIDMapFormat(line)) {
+                            if (!validateClientIDMapFormat(line.toString())) {
                                 failures.add(String.format(
                                         "Invalid format in %s: %s (contains double colons or invalid separators)",
                                         relativePath, line));
@@ -166,15 +161,4 @@ public class ClientIDMapCheck extends AbstractCheck {
 
         return true;
     }
-
-    /**
-     * Check if file matches environment and extension criteria
-     */
-    private boolean matchesEnvironmentFile(Path path, List<String> environments, List<String> fileExtensions) {
-        String fileName = path.getFileName().toString();
-        String fileBaseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
-        String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.')) : "";
-
-        return environments.contains(fileBaseName) && fileExtensions.contains(extension);
-    }
 }
@@ -1,19 +1,14 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.PomModel;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
-import org.apache.maven.model.Dependency;
-import org.apache.maven.model.Model;
-import org.apache.maven.model.Plugin;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 
-import java.io.FileReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 
 /**
  * Generic POM validation check that consolidates all POM-based validation
@@ -36,12 +31,16 @@ import java.util.Properties;
  * Supports multiple items per check - add unlimited dependencies, plugins, or
  * properties!
  * 
+ * With {@code effectivePom: true} the effective POM is validated: properties,
+ * dependencies and plugins inherited from parent POMs (resolved offline from
+ * the workspace or the local repository) are included and interpolated.
+ * 
  * @author Rakesh Kumar (raksjnu@gmail.com)
  */
 public class GenericPomValidationCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         String validationType = (String) check.getParams().get("validationType");
 
         if (validationType == null) {
@@ -49,15 +48,19 @@ public class GenericPomValidationCheck extends AbstractCheck {
                     "Configuration error: 'validationType' parameter is required");
         }
 
-        Path pomPath = projectRoot.resolve("pom.xml");
-        if (!Files.exists(pomPath)) {
+        Path pomPath = context.getProjectRoot().resolve("pom.xml");
+        if (context.getFileIndex().find("pom.xml") == null) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
                     "No pom.xml found in project root");
         }
 
         try {
-            MavenXpp3Reader reader = new MavenXpp3Reader();
-            Model model = reader.read(new FileReader(pomPath.toFile()));
+            // Read once per project and shared by all POM rules. These rules
+            // require a POM that Maven would accept, as before.
+            boolean effectivePom = Boolean.parseBoolean(
+                    String.valueOf(check.getParams().getOrDefault("effectivePom", "false")));
+            PomModel model = effectivePom ? context.getEffectivePomModel(pomPath) : context.getPomModel(pomPath);
+            model.getStrictModel();
 
             switch (validationType.toUpperCase()) {
                 case "DEPENDENCY_EXISTS":
@@ -92,11 +95,11 @@ public class GenericPomValidationCheck extends AbstractCheck {
     /**
      * Validate dependencies existence or non-existence
      * 
-     * @param model       Maven model
+     * @param model       Indexed POM model
      * @param check       Check configuration
      * @param shouldExist true = dependencies MUST exist, false = must NOT exist
      */
-    private CheckResult validateDependencies(Model model, Check check, boolean shouldExist) {
+    private CheckResult validateDependencies(PomModel model, CompiledCheck check, boolean shouldExist) {
         @SuppressWarnings("unchecked")
         List<Map<String, String>> expectedDeps = (List<Map<String, String>>) check.getParams().get("dependencies");
 
@@ -105,11 +108,6 @@ public class GenericPomValidationCheck extends AbstractCheck {
                     "Configuration error: 'dependencies' parameter is required");
         }
 
-        List<Dependency> actualDeps = model.getDependencies();
-        if (actualDeps == null) {
-            actualDeps = new ArrayList<>();
-        }
-
         List<String> failures = new ArrayList<>();
 
         for (Map<String, String> expectedDep : expectedDeps) {
@@ -121,8 +119,7 @@ public class GenericPomValidationCheck extends AbstractCheck {
                 continue;
             }
 
-            boolean found = actualDeps.stream()
-                    .anyMatch(dep -> groupId.equals(dep.getGroupId()) && artifactId.equals(dep.getArtifactId()));
+            boolean found = model.hasDependency(groupId, artifactId);
 
             if (shouldExist && !found) {
                 failures.add(String.format("Required dependency not found: %s:%s", groupId, artifactId));
@@ -143,11 +140,11 @@ public class GenericPomValidationCheck extends AbstractCheck {
     /**
      * Validate plugins existence or non-existence
      * 
-     * @param model       Maven model
+     * @param model       Indexed POM model
      * @param check       Check configuration
      * @param shouldExist true = plugins MUST exist, false = must NOT exist
      */
-    private CheckResult validatePlugins(Model model, Check check, boolean shouldExist) {
+    private CheckResult validatePlugins(PomModel model, CompiledCheck check, boolean shouldExist) {
         @SuppressWarnings("unchecked")
         List<String> expectedPlugins = (List<String>) check.getParams().get("plugins");
 
@@ -156,11 +153,6 @@ public class GenericPomValidationCheck extends AbstractCheck {
                     "Configuration error: 'plugins' parameter is required");
         }
 
-        List<Plugin> actualPlugins = new ArrayList<>();
-        if (model.getBuild() != null && model.getBuild().getPlugins() != null) {
-            actualPlugins = model.getBuild().getPlugins();
-        }
-
         List<String> failures = new ArrayList<>();
 
         for (String expectedPlugin : expectedPlugins) {
@@ -174,9 +166,7 @@ public class GenericPomValidationCheck extends AbstractCheck {
             String groupId = parts[0];
             String artifactId = parts[1];
 
-            boolean found = actualPlugins.stream()
-                    .anyMatch(
-                            plugin -> groupId.equals(plugin.getGroupId()) && artifactId.equals(plugin.getArtifactId()));
+            boolean found = model.hasPlugin(groupId, artifactId);
 
             if (shouldExist && !found) {
                 failures.add(String.format("Required plugin not found: %s", expectedPlugin));
@@ -197,11 +187,11 @@ public class GenericPomValidationCheck extends AbstractCheck {
     /**
      * Validate properties existence or non-existence
      * 
-     * @param model       Maven model
+     * @param model       Indexed POM model
      * @param check       Check configuration
      * @param shouldExist true = properties MUST exist, false = must NOT exist
      */
-    private CheckResult validateProperties(Model model, Check check, boolean shouldExist) {
+    private CheckResult validateProperties(PomModel model, CompiledCheck check, boolean shouldExist) {
         @SuppressWarnings("unchecked")
         List<Map<String, String>> expectedProps = (List<Map<String, String>>) check.getParams().get("properties");
 
@@ -210,11 +200,6 @@ public class GenericPomValidationCheck extends AbstractCheck {
                     "Configuration error: 'properties' parameter is required");
         }
 
-        Properties actualProps = model.getProperties();
-        if (actualProps == null) {
-            actualProps = new Properties();
-        }
-
         List<String> failures = new ArrayList<>();
 
         for (Map<String, String> expectedProp : expectedProps) {
@@ -226,7 +211,7 @@ public class GenericPomValidationCheck extends AbstractCheck {
                 continue;
             }
 
-            String actualValue = actualProps.getProperty(propertyName);
+            String actualValue = model.getProperty(propertyName);
             boolean found = actualValue != null;
 
             if (shouldExist && !found) {
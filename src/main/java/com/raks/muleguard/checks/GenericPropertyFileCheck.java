@@ -1,9 +1,13 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.PropertyFileIndex;
 import com.raks.muleguard.model.CheckResult;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.CharacterCodingException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -11,7 +15,6 @@ import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
-import java.util.stream.Stream;
 
 /**
  * Generic property file validation check that consolidates property-based
@@ -31,7 +34,23 @@ import java.util.stream.Stream;
 public class GenericPropertyFileCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        @SuppressWarnings("unchecked")
+        List<String> regexPatterns = (List<String>) check.getParams().get("regexPatterns");
+        if (regexPatterns == null
+                || !"REGEX_PATTERN".equalsIgnoreCase((String) check.getParams().getOrDefault("parseMode", ""))) {
+            return;
+        }
+        for (String regexPattern : regexPatterns) {
+            String[] parts = regexPattern.split("=", 2);
+            if (parts.length == 2) {
+                compileRegexes(check, List.of(parts[0].trim(), parts[1].trim()), 0);
+            }
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> propertyNames = (List<String>) check.getParams().get("propertyNames");
         @SuppressWarnings("unchecked")
@@ -70,23 +89,16 @@ public class GenericPropertyFileCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(path -> matchesEnvironmentFile(path, environments, fileExtensions))
-                    .forEach(file -> {
-                        if ("REGEX_PATTERN".equalsIgnoreCase(parseMode)) {
-                            validateRegexPatterns(file, regexPatterns, projectRoot, failures);
-                        } else if ("PROPERTIES_FORMAT".equalsIgnoreCase(parseMode)) {
-                            validatePropertiesFile(file, propertyNames, projectRoot, failures);
-                        } else {
-                            validateSubstringSearch(file, propertyNames, projectRoot, failures);
-                        }
-                    });
-
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
-        }
+        context.getFileIndex().environmentFiles(environments, fileExtensions)
+                .forEach(file -> {
+                    if ("REGEX_PATTERN".equalsIgnoreCase(parseMode)) {
+                        validateRegexPatterns(check, file, regexPatterns, context, failures);
+                    } else if ("PROPERTIES_FORMAT".equalsIgnoreCase(parseMode)) {
+                        validatePropertiesFile(file, propertyNames, context, failures);
+                    } else {
+                        validateSubstringSearch(file, propertyNames, context, failures);
+                    }
+                });
 
         if (failures.isEmpty()) {
             String successMessage = "REGEX_PATTERN".equalsIgnoreCase(parseMode)
@@ -100,27 +112,17 @@ public class GenericPropertyFileCheck extends AbstractCheck {
         }
     }
 
-    /**
-     * Check if file matches environment and extension criteria
-     */
-    private boolean matchesEnvironmentFile(Path path, List<String> environments, List<String> fileExtensions) {
-        String fileName = path.getFileName().toString();
-        String fileBaseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
-        String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.')) : "";
-
-        return environments.contains(fileBaseName) && fileExtensions.contains(extension);
-    }
-
     /**
      * Validate properties using regex patterns
      * Pattern format: "propertyNameRegex=propertyValueRegex"
      * Example: "a.*=.*\\.z.*" matches properties like "app.name=com.z.service"
      */
-    private void validateRegexPatterns(Path file, List<String> regexPatterns,
-            Path projectRoot, List<String> failures) {
+    private void validateRegexPatterns(CompiledCheck check, Path file, List<String> regexPatterns,
+            ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            String content = Files.readString(file);
-            String[] lines = content.split("\\r?\\n");
+            // Parsed once per file and shared by all config checks
+            PropertyFileIndex.Entries entries = context.getPropertyIndex(file).getEntries("=");
 
             for (String regexPattern : regexPatterns) {
                 boolean patternMatched = false;
@@ -138,32 +140,17 @@ public class GenericPropertyFileCheck extends AbstractCheck {
                 String valuePattern = parts[1].trim();
 
                 try {
-                    Pattern nameRegex = Pattern.compile(namePattern);
-                    Pattern valueRegex = Pattern.compile(valuePattern);
+                    Pattern nameRegex = check.getPattern(namePattern);
+                    Pattern valueRegex = check.getPattern(valuePattern);
 
-                    // Check each line for matching property
-                    for (String line : lines) {
-                        line = line.trim();
+                    // Check each property for a matching name and value
+                    for (int entry = 0; entry < entries.size(); entry++) {
+                        Matcher nameMatcher = nameRegex.matcher(entries.getName(entry));
+                        Matcher valueMatcher = valueRegex.matcher(entries.getValue(entry));
 
-                        // Skip comments and empty lines
-                        if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
-                            continue;
-                        }
-
-                        // Parse property line
-                        int equalsIndex = line.indexOf('=');
-                        if (equalsIndex > 0) {
-                            String propName = line.substring(0, equalsIndex).trim();
-                            String propValue = line.substring(equalsIndex + 1).trim();
-
-                            // Check if both name and value match the patterns
-                            Matcher nameMatcher = nameRegex.matcher(propName);
-                            Matcher valueMatcher = valueRegex.matcher(propValue);
-
-                            if (nameMatcher.matches() && valueMatcher.matches()) {
-                                patternMatched = true;
-                                break;
-                            }
+                        if (nameMatcher.matches() && valueMatcher.matches()) {
+                            patternMatched = true;
+                            break;
                         }
                     }
 
@@ -189,10 +176,20 @@ public class GenericPropertyFileCheck extends AbstractCheck {
      * Validate properties using Java Properties.load() (for .properties files)
      */
     private void validatePropertiesFile(Path file, List<String> propertyNames,
-            Path projectRoot, List<String> failures) {
+            ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            Properties props = new Properties();
-            props.load(Files.newInputStream(file));
+            Properties props;
+            try {
+                // Loaded once per file and shared by all config checks
+                props = context.getPropertyIndex(file).getProperties();
+            } catch (CharacterCodingException e) {
+                // Not UTF-8 (properties files are ISO-8859-1 by definition): load the bytes
+                props = new Properties();
+                try (InputStream in = Files.newInputStream(file)) {
+                    props.load(in);
+                }
+            }
 
             for (String propertyName : propertyNames) {
                 if (!props.containsKey(propertyName)) {
@@ -210,9 +207,10 @@ public class GenericPropertyFileCheck extends AbstractCheck {
      * Validate properties using substring search (for .policy and other files)
      */
     private void validateSubstringSearch(Path file, List<String> propertyNames,
-            Path projectRoot, List<String> failures) {
+            ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            String content = Files.readString(file);
+            String content = context.getPropertyIndex(file).getContent();
 
             for (String propertyName : propertyNames) {
                 if (!content.contains(propertyName)) {
@@ -1,18 +1,16 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.ProjectFileIndex.FileEntry;
 import com.raks.muleguard.model.CheckResult;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
-import org.apache.commons.io.filefilter.IOFileFilter;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -40,7 +38,20 @@ import java.util.regex.Matcher;
 public class GenericTokenSearchCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        String matchMode = (String) check.getParams().getOrDefault("matchMode", "SUBSTRING");
+        @SuppressWarnings("unchecked")
+        List<String> tokens = (List<String>) check.getParams().get("tokens");
+        if ("REGEX".equalsIgnoreCase(matchMode)) {
+            compileRegexes(check, tokens, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+        } else if (tokens != null && isLiteralMatch(matchMode, (String) check.getParams().get("elementName"))) {
+            check.setLiteralTokens(tokens, false);
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
+        Path projectRoot = context.getProjectRoot();
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -72,95 +83,76 @@ public class GenericTokenSearchCheck extends AbstractCheck {
                     "Configuration error: 'tokens' parameter is required");
         }
 
-        File searchDir = projectRoot.toFile();
-        if (!searchDir.exists() || !searchDir.isDirectory()) {
+        if (!Files.isDirectory(projectRoot)) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
                     "Project directory not found: " + projectRoot);
         }
 
         // Create file filter based on patterns and optional environment filtering
         final List<String> finalEnvironments = environments;
-        IOFileFilter fileFilter = new IOFileFilter() {
-            @Override
-            public boolean accept(File file) {
-                String normalizedPath = FilenameUtils.separatorsToUnix(file.getAbsolutePath());
-
-                // Check file pattern match
-                boolean patternMatches = false;
-                for (String pattern : filePatterns) {
-                    if (FilenameUtils.wildcardMatch(normalizedPath, "**/" + pattern)) {
-                        patternMatches = true;
-                        break;
-                    }
-                }
-
-                if (!patternMatches) {
-                    return false;
-                }
-
-                // If environments are specified, check if file matches environment
-                if (finalEnvironments != null && !finalEnvironments.isEmpty()) {
-                    String fileName = file.getName();
-                    String fileBaseName = fileName.contains(".")
-                            ? fileName.substring(0, fileName.lastIndexOf('.'))
-                            : fileName;
-
-                    return finalEnvironments.contains(fileBaseName);
+        Predicate<FileEntry> fileFilter = entry -> {
+            String normalizedPath = FilenameUtils.separatorsToUnix(entry.getPath().toAbsolutePath().toString());
+
+            // Check file pattern match
+            boolean patternMatches = false;
+            for (String pattern : filePatterns) {
+                if (FilenameUtils.wildcardMatch(normalizedPath, "**/" + pattern)) {
+                    patternMatches = true;
+                    break;
                 }
+            }
 
-                return true;
+            if (!patternMatches) {
+                return false;
             }
 
-            @Override
-            public boolean accept(File dir, String name) {
-                return accept(new File(dir, name));
+            // If environments are specified, check if file matches environment
+            if (finalEnvironments != null && !finalEnvironments.isEmpty()) {
+                return finalEnvironments.contains(entry.getBaseName());
             }
+
+            return true;
         };
 
         // Find all matching files
-        Collection<File> files = FileUtils.listFiles(searchDir, fileFilter, TrueFileFilter.INSTANCE);
+        List<Path> files = context.getFileIndex().filter(fileFilter);
 
         if (files.isEmpty()) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
                     "No files found matching patterns: " + String.join(", ", filePatterns));
         }
 
+        boolean literalMatch = isLiteralMatch(matchMode, elementName);
+
         // Search for tokens in files
         boolean tokenFound = false;
         String foundToken = null;
         String foundInFile = null;
 
-        for (File file : files) {
+        for (Path file : files) {
             try {
-                String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
-
-                for (String token : tokens) {
-                    boolean matches = false;
-
-                    switch (matchMode.toUpperCase()) {
-                        case "REGEX":
-                            matches = matchesRegex(content, token);
-                            break;
-
-                        case "ELEMENT_ATTRIBUTE":
-                            if (elementName != null) {
-                                matches = matchesInElement(content, elementName, token);
-                            } else {
-                                matches = content.contains(token);
-                            }
-                            break;
-
-                        case "SUBSTRING":
-                        default:
-                            matches = content.contains(token);
-                            break;
-                    }
-
-                    if (matches) {
+                if (literalMatch) {
+                    // Literal tokens come from the fused scan of the file; the first
+                    // configured token found wins
+                    int index = context.findLiteralTokens(check, file, true).nextSetBit(0);
+                    if (index >= 0) {
                         tokenFound = true;
-                        foundToken = token;
-                        foundInFile = projectRoot.relativize(file.toPath()).toString();
-                        break;
+                        foundToken = tokens.get(index);
+                        foundInFile = projectRoot.relativize(file).toString();
+                    }
+                } else {
+                    String content = context.readStringLenient(file);
+                    for (String token : tokens) {
+                        boolean matches = "REGEX".equalsIgnoreCase(matchMode)
+                                ? matchesRegex(check, content, token)
+                                : matchesInElement(check, content, elementName, token);
+
+                        if (matches) {
+                            tokenFound = true;
+                            foundToken = token;
+                            foundInFile = projectRoot.relativize(file).toString();
+                            break;
+                        }
                     }
                 }
 
@@ -196,12 +188,21 @@ public class GenericTokenSearchCheck extends AbstractCheck {
         }
     }
 
+    /**
+     * Literal tokens: SUBSTRING mode (the default), or ELEMENT_ATTRIBUTE without
+     * an element name
+     */
+    private boolean isLiteralMatch(String matchMode, String elementName) {
+        return !"REGEX".equalsIgnoreCase(matchMode)
+                && !("ELEMENT_ATTRIBUTE".equalsIgnoreCase(matchMode) && elementName != null);
+    }
+
     /**
      * Check if content matches a regular expression pattern
      */
-    private boolean matchesRegex(String content, String regexPattern) {
+    private boolean matchesRegex(CompiledCheck check, String content, String regexPattern) {
         try {
-            Pattern pattern = Pattern.compile(regexPattern, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+            Pattern pattern = check.getPattern(regexPattern, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
             Matcher matcher = pattern.matcher(content);
             return matcher.find();
         } catch (Exception e) {
@@ -213,14 +214,14 @@ public class GenericTokenSearchCheck extends AbstractCheck {
     /**
      * Check if token appears within a specific XML element
      */
-    private boolean matchesInElement(String content, String elementName, String token) {
+    private boolean matchesInElement(CompiledCheck check, String content, String elementName, String token) {
         // Build regex to find token within element
         // Pattern: <elementName...>...token...</elementName>
         String regex = String.format("(?s)<(?:[a-zA-Z0-9-]+:)?%s\\b[^>]*?%s[^>]*?>",
                 Pattern.quote(elementName), Pattern.quote(token));
 
         try {
-            Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            Pattern pattern = check.getPattern(regex, Pattern.CASE_INSENSITIVE);
             Matcher matcher = pattern.matcher(content);
             return matcher.find();
         } catch (Exception e) {
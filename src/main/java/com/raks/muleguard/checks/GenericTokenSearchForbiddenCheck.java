@@ -1,15 +1,15 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 /**
  * Generic Token Search Forbidden Check - Validates that forbidden tokens do NOT
@@ -27,7 +27,19 @@ import java.util.stream.Stream;
 public class GenericTokenSearchForbiddenCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        @SuppressWarnings("unchecked")
+        List<String> tokens = (List<String>) check.getParams().get("tokens");
+        Boolean caseSensitive = (Boolean) check.getParams().getOrDefault("caseSensitive", true);
+        if ("REGEX".equalsIgnoreCase((String) check.getParams().getOrDefault("matchMode", "SUBSTRING"))) {
+            compileRegexes(check, tokens, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+        } else if (tokens != null) {
+            check.setLiteralTokens(tokens, !caseSensitive);
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -52,26 +64,17 @@ public class GenericTokenSearchForbiddenCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .filter(path -> !matchesAnyPattern(path, excludePatterns, projectRoot))
-                    .toList();
-
-            if (matchingFiles.isEmpty()) {
-                // No files to check - pass (nothing forbidden found)
-                return CheckResult.pass(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns (nothing to validate)");
-            }
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns),
+                check.getGlobs(excludePatterns));
 
-            for (Path file : matchingFiles) {
-                validateForbiddenTokens(file, tokens, matchMode, caseSensitive, projectRoot, failures);
-            }
+        if (matchingFiles.isEmpty()) {
+            // No files to check - pass (nothing forbidden found)
+            return CheckResult.pass(check.getRuleId(), check.getDescription(),
+                    "No files found matching patterns (nothing to validate)");
+        }
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+        for (Path file : matchingFiles) {
+            validateForbiddenTokens(check, file, tokens, matchMode, caseSensitive, context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -83,13 +86,20 @@ public class GenericTokenSearchForbiddenCheck extends AbstractCheck {
         }
     }
 
-    private void validateForbiddenTokens(Path file, List<String> tokens, String matchMode,
-            boolean caseSensitive, Path projectRoot, List<String> failures) {
+    private void validateForbiddenTokens(CompiledCheck check, Path file, List<String> tokens, String matchMode,
+            boolean caseSensitive, ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            String content = Files.readString(file);
-
-            for (String token : tokens) {
-                if (containsToken(content, token, matchMode, caseSensitive)) {
+            // Literal tokens come from the fused scan of the file
+            boolean regex = "REGEX".equalsIgnoreCase(matchMode);
+            BitSet literalMatches = regex ? null : context.findLiteralTokens(check, file, false);
+            String content = regex ? context.readString(file) : null;
+
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean found = literalMatches != null ? literalMatches.get(i)
+                        : containsToken(check, content, token, matchMode, caseSensitive);
+                if (found) {
                     failures.add("Forbidden token '" + token + "' found in file: " + projectRoot.relativize(file));
                 }
             }
@@ -99,11 +109,12 @@ public class GenericTokenSearchForbiddenCheck extends AbstractCheck {
         }
     }
 
-    private boolean containsToken(String content, String token, String matchMode, boolean caseSensitive) {
+    private boolean containsToken(CompiledCheck check, String content, String token, String matchMode,
+            boolean caseSensitive) {
         if ("REGEX".equalsIgnoreCase(matchMode)) {
             try {
                 int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.MULTILINE;
-                Pattern pattern = Pattern.compile(token, flags);
+                Pattern pattern = check.getPattern(token, flags);
                 return pattern.matcher(content).find();
             } catch (Exception e) {
                 // Invalid regex - fall back to substring
@@ -122,29 +133,4 @@ public class GenericTokenSearchForbiddenCheck extends AbstractCheck {
             return content.toLowerCase().contains(token.toLowerCase());
         }
     }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        if (patterns.isEmpty())
-            return false;
-
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
@@ -1,21 +1,31 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.XmlTagScanner;
 import com.raks.muleguard.model.CheckResult;
 import com.raks.muleguard.PropertyResolver;
-import org.dom4j.Document;
-import org.dom4j.Node;
-import org.dom4j.io.SAXReader;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 /**
  * Generic XML validation check that consolidates multiple XML-based validation
@@ -41,7 +51,16 @@ import java.util.stream.Stream;
 public class GenericXmlValidationCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        String validationType = (String) check.getParams().get("validationType");
+        if ("EXISTS".equalsIgnoreCase(validationType) || "NOT_EXISTS".equalsIgnoreCase(validationType)) {
+            check.setStreamingXPaths(getXPaths(check));
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
+        Path projectRoot = context.getProjectRoot();
         String validationType = (String) check.getParams().get("validationType");
         String pathPattern = (String) check.getParams().getOrDefault("path", "src/main/mule/*.xml");
 
@@ -59,19 +78,19 @@ public class GenericXmlValidationCheck extends AbstractCheck {
         switch (validationType.toUpperCase()) {
             case "EXISTS":
             case "NOT_EXISTS":
-                return validateXPathExists(projectRoot, check, pathPattern, validationType);
+                return validateXPathExists(context, check, pathPattern, validationType);
 
             case "ATTRIBUTE_VALUE":
-                return validateAttributeValue(projectRoot, check, pathPattern);
+                return validateAttributeValue(context, check, pathPattern);
 
             case "ATTRIBUTE_EXISTS":
-                return validateAttributeExists(projectRoot, check, pathPattern);
+                return validateAttributeExists(context, check, pathPattern);
 
             case "FORBIDDEN_VALUE":
-                return validateForbiddenValue(projectRoot, check, pathPattern);
+                return validateForbiddenValue(context, check, pathPattern);
 
             case "FORBIDDEN_ATTRIBUTE":
-                return validateForbiddenAttribute(projectRoot, check, pathPattern);
+                return validateForbiddenAttribute(context, check, pathPattern);
 
             default:
                 return CheckResult.fail(check.getRuleId(), check.getDescription(),
@@ -83,101 +102,123 @@ public class GenericXmlValidationCheck extends AbstractCheck {
      * Validate that an XPath expression matches (or doesn't match) elements
      * Enhanced to support multiple XPath checks in a single rule
      */
-    private CheckResult validateXPathExists(Path projectRoot, Check check, String pathPattern, String validationType) {
-        // Check if we have a single xpath or multiple xpaths
-        String singleXpath = (String) check.getParams().get("xpath");
-        @SuppressWarnings("unchecked")
-        List<String> multipleXpaths = (List<String>) check.getParams().get("xpaths");
+    private CheckResult validateXPathExists(ProjectContext context, CompiledCheck check, String pathPattern,
+            String validationType) {
         String failureMessage = (String) check.getParams().get("failureMessage");
-
-        // Support both single and multiple XPath configurations
-        List<String> xpathsToCheck = new ArrayList<>();
-        if (singleXpath != null) {
-            xpathsToCheck.add(singleXpath);
-        }
-        if (multipleXpaths != null && !multipleXpaths.isEmpty()) {
-            xpathsToCheck.addAll(multipleXpaths);
-        }
+        List<String> xpathsToCheck = getXPaths(check);
 
         if (xpathsToCheck.isEmpty()) {
             return CheckResult.fail(check.getRuleId(), check.getDescription(),
                     "Configuration error: 'xpath' or 'xpaths' parameter is required");
         }
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> xmlFiles = paths
-                    .filter(path -> !Files.isDirectory(path))
-                    .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
-                    .filter(path -> matchesPathPattern(path, projectRoot, pathPattern))
-                    .toList();
-
-            if (xmlFiles.isEmpty()) {
-                return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                        "No XML files found matching path: " + pathPattern);
-            }
-
-            List<String> failures = new ArrayList<>();
-            List<String> successes = new ArrayList<>();
-
-            // Check each XPath expression
-            for (String xpath : xpathsToCheck) {
-                boolean foundInAnyFile = false;
-
-                for (Path xmlFile : xmlFiles) {
-                    try {
-                        SAXReader reader = new SAXReader();
-                        Document document = reader.read(xmlFile.toFile());
-                        List<Node> nodes = document.selectNodes(xpath);
+        List<Path> xmlFiles = findXmlFiles(context, check, pathPattern);
 
-                        boolean elementExists = nodes != null && !nodes.isEmpty();
-
-                        if (elementExists) {
-                            foundInAnyFile = true;
-                            break; // Found in this file, no need to check other files for this xpath
-                        }
-                    } catch (Exception e) {
-                        // Continue checking other files
-                    }
-                }
+        if (xmlFiles.isEmpty()) {
+            return CheckResult.fail(check.getRuleId(), check.getDescription(),
+                    "No XML files found matching path: " + pathPattern);
+        }
 
-                // Evaluate result for this XPath
-                if ("EXISTS".equalsIgnoreCase(validationType)) {
-                    if (foundInAnyFile) {
-                        successes.add("✓ XPath found: " + xpath);
+        List<String> failures = new ArrayList<>();
+        List<String> successes = new ArrayList<>();
+
+        // Each file is visited once and tested against all XPaths not yet found,
+        // and only read up to the point where all of them are found. Once every
+        // XPath has been found (every EXISTS satisfied, every NOT_EXISTS failed),
+        // the remaining files cannot change the result.
+        BitSet pending = new BitSet();
+        pending.set(0, xpathsToCheck.size());
+
+        for (Path xmlFile : xmlFiles) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            // Streamable XPaths come from the fused pass, the others from the DOM
+            int[] streamed;
+            Document document;
+            try {
+                streamed = context.findXPathMatches(check, xmlFile, pending, false);
+                document = check.hasDomXPaths() ? context.getXmlDocuments().get(xmlFile) : null;
+            } catch (Exception e) {
+                // Continue checking other files
+                continue;
+            }
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+                try {
+                    boolean found;
+                    if (check.isStreamingXPath(i)) {
+                        found = streamed[i] > 0;
                     } else {
-                        failures.add("✗ XPath not found: " + xpath);
+                        synchronized (document) {
+                            found = selectNodes(check, document, xpathsToCheck.get(i)).getLength() > 0;
+                        }
                     }
-                } else { // NOT_EXISTS
-                    if (!foundInAnyFile) {
-                        successes.add("✓ XPath not found (as expected): " + xpath);
-                    } else {
-                        failures.add("✗ Forbidden XPath found: " + xpath);
+                    if (found) {
+                        pending.clear(i);
                     }
+                } catch (Exception e) {
+                    // Continue checking other files
                 }
             }
+        }
 
-            // Return result based on all XPath checks
-            if (failures.isEmpty()) {
-                String message = successes.size() == 1 ? successes.get(0)
-                        : "All XPath validations passed:\n" + String.join("\n", successes);
-                return CheckResult.pass(check.getRuleId(), check.getDescription(), message);
-            } else {
-                String message = failureMessage != null ? failureMessage
-                        : "XPath validation failures:\n" + String.join("\n", failures);
-                return CheckResult.fail(check.getRuleId(), check.getDescription(), message);
+        // Evaluate result for each XPath
+        for (int i = 0; i < xpathsToCheck.size(); i++) {
+            String xpath = xpathsToCheck.get(i);
+            if ("EXISTS".equalsIgnoreCase(validationType)) {
+                if (!pending.get(i)) {
+                    successes.add("✓ XPath found: " + xpath);
+                } else {
+                    failures.add("✗ XPath not found: " + xpath);
+                }
+            } else { // NOT_EXISTS
+                if (pending.get(i)) {
+                    successes.add("✓ XPath not found (as expected): " + xpath);
+                } else {
+                    failures.add("✗ Forbidden XPath found: " + xpath);
+                }
             }
+        }
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning project files: " + e.getMessage());
+        // Return result based on all XPath checks
+        if (failures.isEmpty()) {
+            String message = successes.size() == 1 ? successes.get(0)
+                    : "All XPath validations passed:\n" + String.join("\n", successes);
+            return CheckResult.pass(check.getRuleId(), check.getDescription(), message);
+        } else {
+            String message = failureMessage != null ? failureMessage
+                    : "XPath validation failures:\n" + String.join("\n", failures);
+            return CheckResult.fail(check.getRuleId(), check.getDescription(), message);
         }
     }
 
+    /**
+     * The XPaths of an EXISTS/NOT_EXISTS check: the single 'xpath' followed by
+     * the 'xpaths' list
+     */
+    private List<String> getXPaths(CompiledCheck check) {
+        // Check if we have a single xpath or multiple xpaths
+        String singleXpath = (String) check.getParams().get("xpath");
+        @SuppressWarnings("unchecked")
+        List<String> multipleXpaths = (List<String>) check.getParams().get("xpaths");
+
+        // Support both single and multiple XPath configurations
+        List<String> xpathsToCheck = new ArrayList<>();
+        if (singleXpath != null) {
+            xpathsToCheck.add(singleXpath);
+        }
+        if (multipleXpaths != null && !multipleXpaths.isEmpty()) {
+            xpathsToCheck.addAll(multipleXpaths);
+        }
+        return xpathsToCheck;
+    }
+
     /**
      * Validate that an XML attribute has a specific value (with property
      * resolution)
      */
-    private CheckResult validateAttributeValue(Path projectRoot, Check check, String pathPattern) {
+    private CheckResult validateAttributeValue(ProjectContext context, CompiledCheck check, String pathPattern) {
+        Path projectRoot = context.getProjectRoot();
         String xpath = (String) check.getParams().get("xpath");
         String expectedValue = (String) check.getParams().get("expectedValue");
         boolean propertyResolution = Boolean.parseBoolean(
@@ -188,29 +229,22 @@ public class GenericXmlValidationCheck extends AbstractCheck {
                     "Configuration error: 'xpath' and 'expectedValue' are required");
         }
 
-        PropertyResolver propertyResolver = propertyResolution ? new PropertyResolver(projectRoot) : null;
+        // Built once per project and shared by all checks
+        PropertyResolver propertyResolver = propertyResolution ? context.getPropertyResolver() : null;
         List<String> failures = new ArrayList<>();
         AtomicBoolean attributeFoundInAnyFile = new AtomicBoolean(false);
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(path -> !Files.isDirectory(path))
-                    .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
-                    .filter(path -> matchesPathPattern(path, projectRoot, pathPattern))
-                    .forEach(xmlFile -> {
-                        try {
-                            SAXReader reader = new SAXReader();
-                            // Disable validation but keep namespaces enabled
-                            reader.setValidation(false);
-                            reader.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                            reader.setFeature("http://xml.org/sax/features/validation", false);
-
-                            Document document = reader.read(xmlFile.toFile());
-                            List<Node> nodes = document.selectNodes(xpath);
-
-                            if (nodes != null && !nodes.isEmpty()) {
+        findXmlFiles(context, check, pathPattern)
+                .forEach(xmlFile -> {
+                    try {
+                        Document document = context.getXmlDocuments().get(xmlFile);
+                        synchronized (document) {
+                            NodeList nodes = selectNodes(check, document, xpath);
+
+                            if (nodes.getLength() > 0) {
                                 attributeFoundInAnyFile.set(true);
-                                for (Node node : nodes) {
-                                    String actualValue = node.getText();
+                                for (int i = 0; i < nodes.getLength(); i++) {
+                                    String actualValue = getText(nodes.item(i));
                                     String resolvedValue = propertyResolver != null
                                             ? propertyResolver.resolve(actualValue)
                                             : actualValue;
@@ -227,15 +261,11 @@ public class GenericXmlValidationCheck extends AbstractCheck {
                                     }
                                 }
                             }
-                        } catch (Exception e) {
-                            // Continue processing other files - silently ignore parse errors
                         }
-                    });
-
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
-        }
+                    } catch (Exception e) {
+                        // Continue processing other files - silently ignore parse errors
+                    }
+                });
 
         if (!attributeFoundInAnyFile.get()) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
@@ -254,7 +284,8 @@ public class GenericXmlValidationCheck extends AbstractCheck {
     /**
      * Validate that an XML element has a required attribute
      */
-    private CheckResult validateAttributeExists(Path projectRoot, Check check, String pathPattern) {
+    private CheckResult validateAttributeExists(ProjectContext context, CompiledCheck check, String pathPattern) {
+        Path projectRoot = context.getProjectRoot();
         String elementName = (String) check.getParams().get("elementName");
         String requiredAttribute = (String) check.getParams().get("requiredAttribute");
 
@@ -266,36 +297,33 @@ public class GenericXmlValidationCheck extends AbstractCheck {
         List<String> failures = new ArrayList<>();
         AtomicBoolean elementFoundInAnyFile = new AtomicBoolean(false);
 
-        String regex = String.format("(?i)<(%s)(?!.*\\b%s\\s*=)[^>]*>",
-                Pattern.quote(elementName), Pattern.quote(requiredAttribute));
-        Pattern violationPattern = Pattern.compile(regex);
-        Pattern elementExistsPattern = Pattern.compile(String.format("<%s", Pattern.quote(elementName)));
-
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(path -> !Files.isDirectory(path))
-                    .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
-                    .filter(path -> matchesPathPattern(path, projectRoot, pathPattern))
-                    .forEach(file -> {
-                        try {
-                            String content = Files.readString(file);
-                            if (elementExistsPattern.matcher(content).find()) {
-                                elementFoundInAnyFile.set(true);
-                                Matcher violationMatcher = violationPattern.matcher(content);
-                                if (violationMatcher.find()) {
-                                    failures.add(String.format(
-                                            "Found <%s> element without required '%s' attribute in file %s",
-                                            elementName, requiredAttribute, projectRoot.relativize(file)));
-                                }
+        findXmlFiles(context, check, pathPattern)
+                .forEach(file -> {
+                    try {
+                        String content = context.readString(file);
+                        // One pass over the start tags: does the element occur, and
+                        // does an occurrence lack the attribute
+                        boolean[] elementFound = new boolean[1];
+                        boolean[] violation = new boolean[1];
+                        XmlTagScanner.scan(content, tag -> {
+                            elementFound[0] |= tag.nameEquals(elementName, false);
+                            if (tag.nameEquals(elementName, true) && !tag.hasAttribute(requiredAttribute, true)) {
+                                violation[0] = true;
+                            }
+                            return !violation[0] || !elementFound[0];
+                        });
+                        if (elementFound[0]) {
+                            elementFoundInAnyFile.set(true);
+                            if (violation[0]) {
+                                failures.add(String.format(
+                                        "Found <%s> element without required '%s' attribute in file %s",
+                                        elementName, requiredAttribute, projectRoot.relativize(file)));
                             }
-                        } catch (IOException e) {
-                            // Continue processing
                         }
-                    });
-
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
-        }
+                    } catch (IOException e) {
+                        // Continue processing
+                    }
+                });
 
         if (!elementFoundInAnyFile.get() || failures.isEmpty()) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
@@ -309,7 +337,8 @@ public class GenericXmlValidationCheck extends AbstractCheck {
     /**
      * Validate that an XML element does NOT contain a forbidden value
      */
-    private CheckResult validateForbiddenValue(Path projectRoot, Check check, String pathPattern) {
+    private CheckResult validateForbiddenValue(ProjectContext context, CompiledCheck check, String pathPattern) {
+        Path projectRoot = context.getProjectRoot();
         String elementName = (String) check.getParams().get("elementName");
         String forbiddenValue = (String) check.getParams().get("forbiddenValue");
 
@@ -319,32 +348,25 @@ public class GenericXmlValidationCheck extends AbstractCheck {
         }
 
         List<String> failures = new ArrayList<>();
-        String regex = String.format("(?i)<%s[^>]*?%s[^>]*?>",
-                Pattern.quote(elementName), Pattern.quote(forbiddenValue));
-        Pattern pattern = Pattern.compile(regex);
-
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(path -> !Files.isDirectory(path))
-                    .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
-                    .filter(path -> matchesPathPattern(path, projectRoot, pathPattern))
-                    .forEach(file -> {
-                        try {
-                            String content = Files.readString(file);
-                            Matcher matcher = pattern.matcher(content);
-                            if (matcher.find()) {
-                                failures.add(String.format(
-                                        "Found forbidden value '%s' in <%s> element in file %s",
-                                        forbiddenValue, elementName, projectRoot.relativize(file)));
-                            }
-                        } catch (IOException e) {
-                            // Continue processing
-                        }
-                    });
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
-        }
+        findXmlFiles(context, check, pathPattern)
+                .forEach(file -> {
+                    try {
+                        String content = context.readString(file);
+                        boolean[] found = new boolean[1];
+                        XmlTagScanner.scan(content, tag -> {
+                            found[0] = tag.nameEquals(elementName, true) && tag.bodyContains(forbiddenValue, true);
+                            return !found[0];
+                        });
+                        if (found[0]) {
+                            failures.add(String.format(
+                                    "Found forbidden value '%s' in <%s> element in file %s",
+                                    forbiddenValue, elementName, projectRoot.relativize(file)));
+                        }
+                    } catch (IOException e) {
+                        // Continue processing
+                    }
+                });
 
         if (failures.isEmpty()) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
@@ -358,7 +380,8 @@ public class GenericXmlValidationCheck extends AbstractCheck {
     /**
      * Validate that XML elements do NOT have forbidden attributes
      */
-    private CheckResult validateForbiddenAttribute(Path projectRoot, Check check, String pathPattern) {
+    private CheckResult validateForbiddenAttribute(ProjectContext context, CompiledCheck check, String pathPattern) {
+        Path projectRoot = context.getProjectRoot();
         @SuppressWarnings("unchecked")
         List<String> elements = (List<String>) check.getParams().get("elements");
         @SuppressWarnings("unchecked")
@@ -371,45 +394,47 @@ public class GenericXmlValidationCheck extends AbstractCheck {
 
         List<String> issues = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(path -> !Files.isDirectory(path))
-                    .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
-                    .filter(path -> matchesPathPattern(path, projectRoot, pathPattern))
-                    .forEach(path -> {
-                        try {
-                            String content = Files.readString(path);
-                            List<String> foundAttributes = new ArrayList<>();
-
-                            // Check each element-attribute combination
-                            for (String element : elements) {
-                                for (String attribute : attributes) {
-                                    // Create regex to find this specific attribute in this element
-                                    String specificRegex = String.format("(?si)<[a-zA-Z0-9_-]*:?%s\\s+[^>]*?%s\\s*=",
-                                            Pattern.quote(element), Pattern.quote(attribute));
-                                    Pattern specificPattern = Pattern.compile(specificRegex);
-                                    Matcher specificMatcher = specificPattern.matcher(content);
-
-                                    if (specificMatcher.find()) {
-                                        foundAttributes.add(String.format("'%s' in <%s>", attribute, element));
-                                    }
+        findXmlFiles(context, check, pathPattern)
+                .forEach(path -> {
+                    try {
+                        String content = context.readString(path);
+                        List<String> foundAttributes = new ArrayList<>();
+
+                        // Check all element-attribute combinations in one pass over the start tags
+                        boolean[][] found = new boolean[elements.size()][attributes.size()];
+                        XmlTagScanner.scan(content, tag -> {
+                            for (int e = 0; e < elements.size(); e++) {
+                                // Configured names may be qualified (http:listener) or not (listener)
+                                if (!tag.localNameEquals(elements.get(e), true)
+                                        && !tag.nameEquals(elements.get(e), true)) {
+                                    continue;
+                                }
+                                for (int a = 0; a < attributes.size(); a++) {
+                                    found[e][a] |= tag.hasAttribute(attributes.get(a), true);
                                 }
                             }
-
-                            if (!foundAttributes.isEmpty()) {
-                                issues.add(String.format(
-                                        "File: %s - Found: %s",
-                                        projectRoot.relativize(path),
-                                        String.join(", ", foundAttributes)));
+                            return true;
+                        });
+
+                        for (int e = 0; e < elements.size(); e++) {
+                            for (int a = 0; a < attributes.size(); a++) {
+                                if (found[e][a]) {
+                                    foundAttributes.add(String.format("'%s' in <%s>", attributes.get(a),
+                                            elements.get(e)));
+                                }
                             }
-                        } catch (Exception e) {
-                            // Continue processing
                         }
-                    });
 
-        } catch (Exception e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error while checking for forbidden attributes: " + e.getMessage());
-        }
+                        if (!foundAttributes.isEmpty()) {
+                            issues.add(String.format(
+                                    "File: %s - Found: %s",
+                                    projectRoot.relativize(path),
+                                    String.join(", ", foundAttributes)));
+                        }
+                    } catch (Exception e) {
+                        // Continue processing
+                    }
+                });
 
         if (issues.isEmpty()) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
@@ -421,14 +446,68 @@ public class GenericXmlValidationCheck extends AbstractCheck {
     }
 
     /**
-     * Check if a path matches the given pattern
+     * Select nodes with an XPath expression. Namespace prefixes used in the
+     * expression resolve against the namespaces declared on the root element.
+     */
+    private NodeList selectNodes(CompiledCheck check, Document document, String expression)
+            throws XPathExpressionException {
+        return (NodeList) check.getXPath(expression, rootNamespaces(document))
+                .evaluate(document, XPathConstants.NODESET);
+    }
+
+    /**
+     * Prefix to namespace URI map of the namespaces declared on the root element
+     */
+    private Map<String, String> rootNamespaces(Document document) {
+        Element root = document.getDocumentElement();
+        if (root == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> namespaces = new HashMap<>();
+        NamedNodeMap attributes = root.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())
+                    && XMLConstants.XMLNS_ATTRIBUTE.equals(attribute.getPrefix())) {
+                namespaces.put(attribute.getLocalName(), attribute.getNodeValue());
+            }
+        }
+        if (root.getPrefix() != null && root.getNamespaceURI() != null) {
+            namespaces.putIfAbsent(root.getPrefix(), root.getNamespaceURI());
+        }
+        return namespaces;
+    }
+
+    /**
+     * Text of a selected node: the value of an attribute, or the text directly
+     * contained in an element (text of child elements is not included)
+     */
+    private String getText(Node node) {
+        if (node.getNodeType() != Node.ELEMENT_NODE) {
+            return node.getTextContent();
+        }
+        StringBuilder text = new StringBuilder();
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                text.append(child.getNodeValue());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Find the XML files of the project matching the given path pattern
      */
-    private boolean matchesPathPattern(Path path, Path projectRoot, String pattern) {
+    private List<Path> findXmlFiles(ProjectContext context, CompiledCheck check, String pattern) {
+        PathMatcher matcher;
         try {
-            return path.getFileSystem().getPathMatcher("glob:**/" + pattern).matches(path);
+            matcher = check.getPathMatcher("glob:**/" + pattern);
         } catch (Exception e) {
             // If pattern matching fails, include the file
-            return true;
+            matcher = path -> true;
         }
+        PathMatcher pathMatcher = matcher;
+        return context.getFileIndex().filter(entry -> entry.getFileName().toLowerCase().endsWith(".xml")
+                && pathMatcher.matches(entry.getPath()));
     }
 }
@@ -1,30 +1,27 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.JsonTrees;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 /**
  * JSON Validation Forbidden Check - Validates that forbidden JSON elements do
- * NOT exist.
+ * NOT exist. Fields and elements are top-level names or, starting with
+ * {@code /}, JSON pointers (see {@link JsonTrees}).
  * 
  * @author Rakesh Kumar (raksjnu@gmail.com)
  */
 public class JsonValidationForbiddenCheck extends AbstractCheck {
 
-    private final ObjectMapper mapper = new ObjectMapper();
-
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         String filePattern = (String) check.getParams().get("filePattern");
 
         if (filePattern == null || filePattern.isEmpty()) {
@@ -34,34 +31,16 @@ public class JsonValidationForbiddenCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> jsonFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals(filePattern))
-                    // Filter out files in ignored folders (target, bin, build, etc.)
-                    .filter(path -> {
-                        String pathStr = projectRoot.relativize(path).toString();
-                        // Check if path contains any ignored folder names
-                        return !pathStr.contains("target" + java.io.File.separator) &&
-                                !pathStr.contains("bin" + java.io.File.separator) &&
-                                !pathStr.contains("build" + java.io.File.separator) &&
-                                !pathStr.contains(".git" + java.io.File.separator) &&
-                                !pathStr.contains(".idea" + java.io.File.separator);
-                    })
-                    .toList();
-
-            if (jsonFiles.isEmpty()) {
-                return CheckResult.pass(check.getRuleId(), check.getDescription(),
-                        "No files found matching pattern (nothing to validate)");
-            }
+        // Files in ignored folders (target, bin, build, etc.) are not indexed
+        List<Path> jsonFiles = context.getFileIndex().withFileName(filePattern);
 
-            for (Path jsonFile : jsonFiles) {
-                validateJson(jsonFile, check.getParams(), projectRoot, failures);
-            }
+        if (jsonFiles.isEmpty()) {
+            return CheckResult.pass(check.getRuleId(), check.getDescription(),
+                    "No files found matching pattern (nothing to validate)");
+        }
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+        for (Path jsonFile : jsonFiles) {
+            validateJson(jsonFile, check.getParams(), context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -73,21 +52,34 @@ public class JsonValidationForbiddenCheck extends AbstractCheck {
         }
     }
 
-    private void validateJson(Path jsonFile, Map<String, Object> params, Path projectRoot, List<String> failures) {
+    private void validateJson(Path jsonFile, Map<String, Object> params, ProjectContext context,
+            List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            JsonNode root = mapper.readTree(jsonFile.toFile());
-
-            // Validate forbidden elements
             @SuppressWarnings("unchecked")
             List<String> forbiddenElements = (List<String>) params.get("forbiddenElements");
+            @SuppressWarnings("unchecked")
+            List<Map<String, String>> forbiddenFieldValues = (List<Map<String, String>>) params
+                    .get("forbiddenFieldValues");
+
+            // Parsed once per project, or streamed for the requested paths if large
+            List<String> paths = new ArrayList<>();
+            if (forbiddenElements != null) {
+                paths.addAll(forbiddenElements);
+            }
+            if (forbiddenFieldValues != null) {
+                for (Map<String, String> fieldValue : forbiddenFieldValues) {
+                    paths.add(fieldValue.get("field"));
+                }
+            }
+            JsonNode root = context.getJsonTree(jsonFile, paths);
+
+            // Validate forbidden elements
             if (forbiddenElements != null) {
                 validateForbiddenElements(root, forbiddenElements, jsonFile, projectRoot, failures);
             }
 
             // Validate forbidden field values
-            @SuppressWarnings("unchecked")
-            List<Map<String, String>> forbiddenFieldValues = (List<Map<String, String>>) params
-                    .get("forbiddenFieldValues");
             if (forbiddenFieldValues != null) {
                 validateForbiddenFieldValues(root, forbiddenFieldValues, jsonFile, projectRoot, failures);
             }
@@ -100,7 +92,7 @@ public class JsonValidationForbiddenCheck extends AbstractCheck {
     private void validateForbiddenElements(JsonNode root, List<String> forbiddenElements, Path jsonFile,
             Path projectRoot, List<String> failures) {
         for (String element : forbiddenElements) {
-            if (root.has(element)) {
+            if (JsonTrees.find(root, element) != null) {
                 failures.add(String.format("%s has forbidden element: %s",
                         jsonFile.getFileName().toString(), element));
             }
@@ -113,7 +105,7 @@ public class JsonValidationForbiddenCheck extends AbstractCheck {
             String field = fieldValue.get("field");
             String forbiddenValue = fieldValue.get("forbiddenValue");
 
-            JsonNode node = root.get(field);
+            JsonNode node = JsonTrees.find(root, field);
             if (node != null && forbiddenValue.equals(node.asText())) {
                 failures.add(String.format("Forbidden value '%s' found for field '%s' in %s",
                         forbiddenValue, field, projectRoot.relativize(jsonFile)));
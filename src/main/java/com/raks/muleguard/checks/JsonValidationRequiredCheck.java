@@ -1,29 +1,27 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.JsonTrees;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 /**
  * JSON Validation Required Check - Validates that required JSON elements exist.
+ * Fields and elements are top-level names or, starting with {@code /}, JSON
+ * pointers (see {@link JsonTrees}).
  * 
  * @author Rakesh Kumar (raksjnu@gmail.com)
  */
 public class JsonValidationRequiredCheck extends AbstractCheck {
 
-    private final ObjectMapper mapper = new ObjectMapper();
-
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         String filePattern = (String) check.getParams().get("filePattern");
 
         if (filePattern == null || filePattern.isEmpty()) {
@@ -33,24 +31,15 @@ public class JsonValidationRequiredCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> jsonFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals(filePattern))
-                    .toList();
-
-            if (jsonFiles.isEmpty()) {
-                return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                        "No files found matching pattern: " + filePattern);
-            }
+        List<Path> jsonFiles = context.getFileIndex().withFileName(filePattern);
 
-            for (Path jsonFile : jsonFiles) {
-                validateJson(jsonFile, check.getParams(), projectRoot, failures);
-            }
-
-        } catch (IOException e) {
+        if (jsonFiles.isEmpty()) {
             return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+                    "No files found matching pattern: " + filePattern);
+        }
+
+        for (Path jsonFile : jsonFiles) {
+            validateJson(jsonFile, check.getParams(), context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -62,27 +51,41 @@ public class JsonValidationRequiredCheck extends AbstractCheck {
         }
     }
 
-    private void validateJson(Path jsonFile, Map<String, Object> params, Path projectRoot, List<String> failures) {
+    private void validateJson(Path jsonFile, Map<String, Object> params, ProjectContext context,
+            List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            JsonNode root = mapper.readTree(jsonFile.toFile());
-
-            // Validate min versions
             @SuppressWarnings("unchecked")
             Map<String, String> minVersions = (Map<String, String>) params.get("minVersions");
+            @SuppressWarnings("unchecked")
+            Map<String, String> requiredFields = (Map<String, String>) params.get("requiredFields");
+            @SuppressWarnings("unchecked")
+            List<String> requiredElements = (List<String>) params.get("requiredElements");
+
+            // Parsed once per project, or streamed for the requested paths if large
+            List<String> paths = new ArrayList<>();
+            if (minVersions != null) {
+                paths.addAll(minVersions.keySet());
+            }
+            if (requiredFields != null) {
+                paths.addAll(requiredFields.keySet());
+            }
+            if (requiredElements != null) {
+                paths.addAll(requiredElements);
+            }
+            JsonNode root = context.getJsonTree(jsonFile, paths);
+
+            // Validate min versions
             if (minVersions != null) {
                 validateMinVersions(root, minVersions, jsonFile, projectRoot, failures);
             }
 
             // Validate required fields
-            @SuppressWarnings("unchecked")
-            Map<String, String> requiredFields = (Map<String, String>) params.get("requiredFields");
             if (requiredFields != null) {
                 validateRequiredFields(root, requiredFields, jsonFile, projectRoot, failures);
             }
 
             // Validate required elements (existence only)
-            @SuppressWarnings("unchecked")
-            List<String> requiredElements = (List<String>) params.get("requiredElements");
             if (requiredElements != null) {
                 validateRequiredElements(root, requiredElements, jsonFile, projectRoot, failures);
             }
@@ -98,7 +101,7 @@ public class JsonValidationRequiredCheck extends AbstractCheck {
             String field = entry.getKey();
             String minVersion = entry.getValue();
 
-            JsonNode node = root.get(field);
+            JsonNode node = JsonTrees.find(root, field);
             if (node == null) {
                 failures.add(String.format("Field '%s' missing in %s", field, projectRoot.relativize(jsonFile)));
             } else {
@@ -117,7 +120,7 @@ public class JsonValidationRequiredCheck extends AbstractCheck {
             String field = entry.getKey();
             String expectedValue = entry.getValue();
 
-            JsonNode node = root.get(field);
+            JsonNode node = JsonTrees.find(root, field);
             if (node == null) {
                 failures.add(String.format("Field '%s' missing in %s", field, projectRoot.relativize(jsonFile)));
             } else {
@@ -133,7 +136,7 @@ public class JsonValidationRequiredCheck extends AbstractCheck {
     private void validateRequiredElements(JsonNode root, List<String> requiredElements, Path jsonFile,
             Path projectRoot, List<String> failures) {
         for (String element : requiredElements) {
-            if (!root.has(element)) {
+            if (JsonTrees.find(root, element) == null) {
                 failures.add(String.format("Element '%s' missing in %s", element, projectRoot.relativize(jsonFile)));
             }
         }
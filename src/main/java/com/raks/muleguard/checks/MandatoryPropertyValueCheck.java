@@ -1,16 +1,16 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.PropertyFileIndex;
 import com.raks.muleguard.model.CheckResult;
 import com.raks.muleguard.model.PropertyConfig;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 /**
  * Mandatory property name-value validation check for configuration files.
@@ -29,7 +29,7 @@ import java.util.stream.Stream;
 public class MandatoryPropertyValueCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> fileExtensions = (List<String>) check.getParams().get("fileExtensions");
         List<String> environments = resolveEnvironments(check);
@@ -61,18 +61,11 @@ public class MandatoryPropertyValueCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(path -> matchesEnvironmentFile(path, environments, fileExtensions))
-                    .forEach(file -> {
-                        validatePropertiesInFile(file, properties, delimiter,
-                                caseSensitiveNames, caseSensitiveValues, projectRoot, failures);
-                    });
-
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
-        }
+        context.getFileIndex().environmentFiles(environments, fileExtensions)
+                .forEach(file -> {
+                    validatePropertiesInFile(file, properties, delimiter,
+                            caseSensitiveNames, caseSensitiveValues, context, failures);
+                });
 
         if (failures.isEmpty()) {
             return CheckResult.pass(check.getRuleId(), check.getDescription(),
@@ -102,26 +95,16 @@ public class MandatoryPropertyValueCheck extends AbstractCheck {
         return configs;
     }
 
-    /**
-     * Check if file matches environment and extension criteria
-     */
-    private boolean matchesEnvironmentFile(Path path, List<String> environments, List<String> fileExtensions) {
-        String fileName = path.getFileName().toString();
-        String fileBaseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
-        String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.')) : "";
-
-        return environments.contains(fileBaseName) && fileExtensions.contains(extension);
-    }
-
     /**
      * Validate properties in file
      */
     private void validatePropertiesInFile(Path file, List<PropertyConfig> properties, String delimiter,
             boolean globalCaseSensitiveNames, boolean globalCaseSensitiveValues,
-            Path projectRoot, List<String> failures) {
+            ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            String content = Files.readString(file);
-            String[] lines = content.split("\\r?\\n");
+            // Parsed once per file and shared by all config checks
+            PropertyFileIndex.Entries entries = context.getPropertyIndex(file).getEntries(delimiter);
 
             for (PropertyConfig propConfig : properties) {
                 boolean propertyFound = false;
@@ -135,36 +118,20 @@ public class MandatoryPropertyValueCheck extends AbstractCheck {
                         ? propConfig.getCaseSensitiveValue()
                         : globalCaseSensitiveValues;
 
-                for (String line : lines) {
-                    line = line.trim();
+                for (int entry : entries.find(propConfig.getName(), caseSensitiveName)) {
+                    propertyFound = true;
 
-                    // Skip comments and empty lines
-                    if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
-                        continue;
+                    // Check if value matches any of the allowed values
+                    String propValue = entries.getValue(entry).toString();
+                    for (String expectedValue : propConfig.getValues()) {
+                        if (matches(propValue, expectedValue, caseSensitiveValue)) {
+                            valueMatched = true;
+                            break;
+                        }
                     }
 
-                    // Parse property line
-                    int delimiterIndex = line.indexOf(delimiter);
-                    if (delimiterIndex > 0) {
-                        String propName = line.substring(0, delimiterIndex).trim();
-                        String propValue = line.substring(delimiterIndex + 1).trim();
-
-                        // Check if property name matches
-                        if (matches(propName, propConfig.getName(), caseSensitiveName)) {
-                            propertyFound = true;
-
-                            // Check if value matches any of the allowed values
-                            for (String expectedValue : propConfig.getValues()) {
-                                if (matches(propValue, expectedValue, caseSensitiveValue)) {
-                                    valueMatched = true;
-                                    break;
-                                }
-                            }
-
-                            if (valueMatched) {
-                                break; // Property found with correct value
-                            }
-                        }
+                    if (valueMatched) {
+                        break; // Property found with correct value
                     }
                 }
 
@@ -1,14 +1,16 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.PropertyFileIndex;
+import com.raks.muleguard.engine.TokenMatcher;
 import com.raks.muleguard.model.CheckResult;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Stream;
 
 /**
  * Substring check for configuration files.
@@ -28,7 +30,7 @@ import java.util.stream.Stream;
 public class MandatorySubstringCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> fileExtensions = (List<String>) check.getParams().get("fileExtensions");
         @SuppressWarnings("unchecked")
@@ -64,17 +66,10 @@ public class MandatorySubstringCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(path -> matchesEnvironmentFile(path, environments, fileExtensions))
-                    .forEach(file -> {
-                        validateTokensInFile(file, tokens, caseSensitive, searchMode, projectRoot, failures);
-                    });
-
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
-        }
+        context.getFileIndex().environmentFiles(environments, fileExtensions)
+                .forEach(file -> {
+                    validateTokensInFile(check, file, tokens, caseSensitive, searchMode, context, failures);
+                });
 
         if (failures.isEmpty()) {
             String message = searchMode.equals("REQUIRED")
@@ -89,46 +84,31 @@ public class MandatorySubstringCheck extends AbstractCheck {
         }
     }
 
-    /**
-     * Check if file matches environment and extension criteria
-     */
-    private boolean matchesEnvironmentFile(Path path, List<String> environments, List<String> fileExtensions) {
-        String fileName = path.getFileName().toString();
-        String fileBaseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
-        String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.')) : "";
-
-        return environments.contains(fileBaseName) && fileExtensions.contains(extension);
-    }
-
     /**
      * Validate tokens in file based on search mode
      * REQUIRED mode: Token must exist (fail if not found)
      * FORBIDDEN mode: Token must NOT exist (fail if found)
      */
-    private void validateTokensInFile(Path file, List<String> tokens, boolean caseSensitive,
-            String searchMode, Path projectRoot, List<String> failures) {
+    private void validateTokensInFile(CompiledCheck check, Path file, List<String> tokens, boolean caseSensitive,
+            String searchMode, ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            String content = Files.readString(file);
-            String[] lines = content.split("\\r?\\n");
-
-            for (String token : tokens) {
-                boolean found = false;
-
-                // Check each line, skipping comments
-                for (String line : lines) {
-                    line = line.trim();
-
-                    // Skip comments and empty lines
-                    if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
-                        continue;
-                    }
-
-                    // Check if token exists in this non-commented line
-                    if (containsToken(line, token, caseSensitive)) {
-                        found = true;
-                        break;
-                    }
+            // Property lines (without comments) are parsed once per file and
+            // shared by all config checks
+            PropertyFileIndex index = context.getPropertyIndex(file);
+
+            // All tokens are matched together, in one pass over each property line
+            TokenMatcher tokenMatcher = check.getTokenMatcher(tokens, !caseSensitive);
+            BitSet foundTokens = new BitSet(tokens.size());
+            for (int line = 0; line < index.getLineCount(); line++) {
+                if (tokenMatcher.findAll(index.getLine(line), foundTokens)) {
+                    break; // All tokens found
                 }
+            }
+
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean found = foundTokens.get(i);
 
                 if (searchMode.equals("REQUIRED")) {
                     // REQUIRED mode: Fail if token is NOT found
@@ -151,15 +131,4 @@ public class MandatorySubstringCheck extends AbstractCheck {
                     projectRoot.relativize(file), e.getMessage()));
         }
     }
-
-    /**
-     * Check if content contains token with configurable case sensitivity
-     */
-    private boolean containsToken(String content, String token, boolean caseSensitive) {
-        if (caseSensitive) {
-            return content.contains(token);
-        } else {
-            return content.toLowerCase().contains(token.toLowerCase());
-        }
-    }
 }
@@ -1,54 +1,41 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.PomModel;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
+import org.apache.maven.model.Parent;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 /**
  * POM Validation Required Check - Validates that required POM elements exist.
  * Supports parent, properties, dependencies, and plugins validation.
+ * With {@code effectivePom: true} elements inherited from parent POMs count
+ * as well (see {@link ProjectContext#getEffectivePomModel}).
  * 
  * @author Rakesh Kumar (raksjnu@gmail.com)
  */
 public class PomValidationRequiredCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         String validationType = (String) check.getParams().getOrDefault("validationType", "COMBINED");
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> pomFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals("pom.xml"))
-                    .toList();
-
-            if (pomFiles.isEmpty()) {
-                return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                        "No pom.xml files found in project");
-            }
+        List<Path> pomFiles = context.getFileIndex().withFileName("pom.xml");
 
-            for (Path pomFile : pomFiles) {
-                validatePom(pomFile, check.getParams(), validationType, projectRoot, failures);
-            }
-
-        } catch (IOException e) {
+        if (pomFiles.isEmpty()) {
             return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+                    "No pom.xml files found in project");
+        }
+
+        for (Path pomFile : pomFiles) {
+            validatePom(pomFile, check.getParams(), validationType, context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -61,48 +48,49 @@ public class PomValidationRequiredCheck extends AbstractCheck {
     }
 
     private void validatePom(Path pomFile, Map<String, Object> params, String validationType,
-            Path projectRoot, List<String> failures) {
+            ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            Document doc = parseXml(pomFile);
+            // Read once per project and shared by all POM rules
+            boolean effectivePom = Boolean.parseBoolean(String.valueOf(params.getOrDefault("effectivePom", "false")));
+            PomModel pom = effectivePom ? context.getEffectivePomModel(pomFile) : context.getPomModel(pomFile);
 
             // Validate based on type
             if ("PARENT".equals(validationType) || "COMBINED".equals(validationType)) {
-                validateParent(doc, params, pomFile, projectRoot, failures);
+                validateParent(pom, params, pomFile, projectRoot, failures);
             }
 
             if ("PROPERTIES".equals(validationType) || "COMBINED".equals(validationType)) {
-                validateProperties(doc, params, pomFile, projectRoot, failures);
+                validateProperties(pom, params, pomFile, projectRoot, failures);
             }
 
             if ("DEPENDENCIES".equals(validationType) || "COMBINED".equals(validationType)) {
-                validateDependencies(doc, params, pomFile, projectRoot, failures);
+                validateDependencies(pom, params, pomFile, projectRoot, failures);
             }
 
             if ("PLUGINS".equals(validationType) || "COMBINED".equals(validationType)) {
-                validatePlugins(doc, params, pomFile, projectRoot, failures);
+                validatePlugins(pom, params, pomFile, projectRoot, failures);
             }
-
         } catch (Exception e) {
             failures.add("Error parsing POM file " + projectRoot.relativize(pomFile) + ": " + e.getMessage());
         }
     }
 
-    private void validateParent(Document doc, Map<String, Object> params, Path pomFile,
+    private void validateParent(PomModel pom, Map<String, Object> params, Path pomFile,
             Path projectRoot, List<String> failures) {
         @SuppressWarnings("unchecked")
         Map<String, String> parent = (Map<String, String>) params.get("parent");
         if (parent == null)
             return;
 
-        NodeList parentNodes = doc.getElementsByTagName("parent");
-        if (parentNodes.getLength() == 0) {
+        Parent pomParent = pom.getParent();
+        if (pomParent == null) {
             failures.add("Parent element missing in " + projectRoot.relativize(pomFile));
             return;
         }
 
-        Element parentElement = (Element) parentNodes.item(0);
-        String groupId = getElementText(parentElement, "groupId");
-        String artifactId = getElementText(parentElement, "artifactId");
+        String groupId = pomParent.getGroupId();
+        String artifactId = pomParent.getArtifactId();
 
         if (!parent.get("groupId").equals(groupId) || !parent.get("artifactId").equals(artifactId)) {
             failures.add(String.format("Parent mismatch in %s: expected %s:%s",
@@ -110,25 +98,22 @@ public class PomValidationRequiredCheck extends AbstractCheck {
         }
     }
 
-    private void validateProperties(Document doc, Map<String, Object> params, Path pomFile,
+    private void validateProperties(PomModel pom, Map<String, Object> params, Path pomFile,
             Path projectRoot, List<String> failures) {
         @SuppressWarnings("unchecked")
         List<Map<String, String>> properties = (List<Map<String, String>>) params.get("properties");
         if (properties == null)
             return;
 
-        NodeList propsNode = doc.getElementsByTagName("properties");
-        if (propsNode.getLength() == 0) {
+        if (!pom.hasProperties()) {
             failures.add("Properties section missing in " + projectRoot.relativize(pomFile));
             return;
         }
 
-        Element propsElement = (Element) propsNode.item(0);
-
         for (Map<String, String> prop : properties) {
             String name = prop.get("name");
             String expectedValue = prop.get("expectedValue");
-            String actualValue = getElementText(propsElement, name);
+            String actualValue = pom.getProperty(name);
 
             if (actualValue == null || actualValue.isEmpty()) {
                 failures.add(String.format("Property '%s' missing in %s", name, projectRoot.relativize(pomFile)));
@@ -139,86 +124,33 @@ public class PomValidationRequiredCheck extends AbstractCheck {
         }
     }
 
-    private void validateDependencies(Document doc, Map<String, Object> params, Path pomFile,
+    private void validateDependencies(PomModel pom, Map<String, Object> params, Path pomFile,
             Path projectRoot, List<String> failures) {
         @SuppressWarnings("unchecked")
         List<Map<String, String>> dependencies = (List<Map<String, String>>) params.get("dependencies");
         if (dependencies == null)
             return;
 
-        NodeList depNodes = doc.getElementsByTagName("dependency");
-
         for (Map<String, String> dep : dependencies) {
-            boolean found = false;
-
-            for (int i = 0; i < depNodes.getLength(); i++) {
-                Element depElement = (Element) depNodes.item(i);
-                if (matchesDependency(depElement, dep)) {
-                    found = true;
-                    break;
-                }
-            }
-
-            if (!found) {
+            if (pom.countDeclaredDependencies(dep.get("groupId"), dep.get("artifactId")) == 0) {
                 failures.add(String.format("Dependency %s:%s not found in %s",
                         dep.get("groupId"), dep.get("artifactId"), projectRoot.relativize(pomFile)));
             }
         }
     }
 
-    private void validatePlugins(Document doc, Map<String, Object> params, Path pomFile,
+    private void validatePlugins(PomModel pom, Map<String, Object> params, Path pomFile,
             Path projectRoot, List<String> failures) {
         @SuppressWarnings("unchecked")
         List<Map<String, String>> plugins = (List<Map<String, String>>) params.get("plugins");
         if (plugins == null)
             return;
 
-        NodeList pluginNodes = doc.getElementsByTagName("plugin");
-
         for (Map<String, String> plugin : plugins) {
-            boolean found = false;
-
-            for (int i = 0; i < pluginNodes.getLength(); i++) {
-                Element pluginElement = (Element) pluginNodes.item(i);
-                if (matchesPlugin(pluginElement, plugin)) {
-                    found = true;
-                    break;
-                }
-            }
-
-            if (!found) {
+            if (pom.countDeclaredPlugins(plugin.get("groupId"), plugin.get("artifactId")) == 0) {
                 failures.add(String.format("Plugin %s:%s not found in %s",
                         plugin.get("groupId"), plugin.get("artifactId"), projectRoot.relativize(pomFile)));
             }
         }
     }
-
-    private boolean matchesDependency(Element depElement, Map<String, String> expected) {
-        String groupId = getElementText(depElement, "groupId");
-        String artifactId = getElementText(depElement, "artifactId");
-
-        return expected.get("groupId").equals(groupId) && expected.get("artifactId").equals(artifactId);
-    }
-
-    private boolean matchesPlugin(Element pluginElement, Map<String, String> expected) {
-        String groupId = getElementText(pluginElement, "groupId");
-        String artifactId = getElementText(pluginElement, "artifactId");
-
-        return expected.get("groupId").equals(groupId) && expected.get("artifactId").equals(artifactId);
-    }
-
-    private String getElementText(Element parent, String tagName) {
-        NodeList nodes = parent.getElementsByTagName(tagName);
-        if (nodes.getLength() > 0) {
-            return nodes.item(0).getTextContent().trim();
-        }
-        return null;
-    }
-
-    private Document parseXml(Path file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(file.toFile());
-    }
 }
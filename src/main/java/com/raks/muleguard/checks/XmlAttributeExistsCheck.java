@@ -1,21 +1,17 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.XmlElementStream;
 import com.raks.muleguard.model.CheckResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * XML Attribute Exists Check - Validates that required attributes exist in XML
@@ -31,8 +27,10 @@ import org.w3c.dom.NodeList;
  */
 public class XmlAttributeExistsCheck extends AbstractCheck {
 
+    private static final Pattern PROPERTY_PLACEHOLDER = Pattern.compile("\\$\\{[^}]+\\}");
+
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
 
@@ -71,39 +69,21 @@ public class XmlAttributeExistsCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .toList();
-
-            if (matchingFiles.isEmpty()) {
-                return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns: " + filePatterns);
-            }
-
-            for (Path file : matchingFiles) {
-                // Mode 1: Simple attribute existence
-                if (elements != null && !elements.isEmpty() && attributes != null && !attributes.isEmpty()) {
-                    validateSimpleAttributes(file, elements, attributes, caseSensitive, projectRoot, failures);
-                }
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns));
 
-                // Mode 2: Attribute-value pairs
-                if (attributeValuePairs != null && !attributeValuePairs.isEmpty()) {
-                    validateAttributeValuePairs(file, attributeValuePairs, caseSensitive, propertyResolution,
-                            projectRoot, failures);
-                }
+        if (matchingFiles.isEmpty()) {
+            return CheckResult.fail(check.getRuleId(), check.getDescription(),
+                    "No files found matching patterns: " + filePatterns);
+        }
 
-                // Mode 3: Element attribute sets
-                if (elementAttributeSets != null && !elementAttributeSets.isEmpty()) {
-                    validateElementAttributeSets(file, elementAttributeSets, caseSensitive, propertyResolution,
-                            projectRoot, failures);
-                }
-            }
+        boolean simpleMode = elements != null && !elements.isEmpty() && attributes != null && !attributes.isEmpty();
+        boolean pairMode = attributeValuePairs != null && !attributeValuePairs.isEmpty();
+        boolean setMode = elementAttributeSets != null && !elementAttributeSets.isEmpty();
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+        for (Path file : matchingFiles) {
+            validateFile(file, simpleMode ? elements : List.of(), attributes,
+                    pairMode ? attributeValuePairs : List.of(), setMode ? elementAttributeSets : List.of(),
+                    caseSensitive, propertyResolution, context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -115,124 +95,119 @@ public class XmlAttributeExistsCheck extends AbstractCheck {
         }
     }
 
-    // Mode 1: Simple attribute existence
-    private void validateSimpleAttributes(Path file, List<String> elements, List<String> attributes,
-            boolean caseSensitive, Path projectRoot, List<String> failures) {
-        try {
-            Document doc = parseXml(file);
+    /**
+     * Evaluates all three modes in a single streaming pass over the file.
+     * Failures are reported per mode, in configuration order.
+     */
+    private void validateFile(Path file, List<String> elements, List<String> attributes,
+            List<Map<String, String>> pairs, List<Map<String, Object>> sets,
+            boolean caseSensitive, boolean propertyResolution, ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
+
+        Set<String> elementNames = new HashSet<>(elements);
+        for (Map<String, String> pair : pairs) {
+            elementNames.add(pair.get("element"));
+        }
+        for (Map<String, Object> set : sets) {
+            elementNames.add((String) set.get("element"));
+        }
 
-            for (String elementName : elements) {
-                NodeList nodeList = doc.getElementsByTagName(elementName);
+        // Mode 1: missing attributes and occurrence count per configured element
+        List<List<String>> simpleFailures = new ArrayList<>();
+        int[] simpleCounts = new int[elements.size()];
+        for (int i = 0; i < elements.size(); i++) {
+            simpleFailures.add(new ArrayList<>());
+        }
+        // Modes 2 and 3: whether a matching element was found
+        boolean[] pairFound = new boolean[pairs.size()];
+        boolean[] setFound = new boolean[sets.size()];
 
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Element element = (Element) nodeList.item(i);
+        try {
+            XmlElementStream.scan(context, file, elementNames, false, element -> {
+                String elementName = element.getName();
 
+                // Mode 1: Simple attribute existence
+                for (int i = 0; i < elements.size(); i++) {
+                    if (!elementName.equals(elements.get(i))) {
+                        continue;
+                    }
+                    simpleCounts[i]++;
                     for (String attrName : attributes) {
                         if (!element.hasAttribute(attrName)) {
-                            failures.add(String.format("Element '%s' missing attribute '%s' in file: %s",
+                            simpleFailures.get(i).add(String.format("Element '%s' missing attribute '%s' in file: %s",
                                     elementName, attrName, projectRoot.relativize(file)));
                         }
                     }
                 }
 
-                if (nodeList.getLength() == 0) {
-                    failures.add(String.format("Element '%s' not found in file: %s",
-                            elementName, projectRoot.relativize(file)));
-                }
-            }
-        } catch (Exception e) {
-            failures.add("Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage());
-        }
-    }
-
-    // Mode 2: Attribute-value pairs
-    private void validateAttributeValuePairs(Path file, List<Map<String, String>> pairs,
-            boolean caseSensitive, boolean propertyResolution, Path projectRoot, List<String> failures) {
-        try {
-            Document doc = parseXml(file);
-
-            for (Map<String, String> pair : pairs) {
-                String elementName = pair.get("element");
-                String attrName = pair.get("attribute");
-                String expectedValue = pair.get("expectedValue");
-
-                NodeList nodeList = doc.getElementsByTagName(elementName);
-                boolean found = false;
-
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Element element = (Element) nodeList.item(i);
-
-                    if (element.hasAttribute(attrName)) {
-                        String actualValue = element.getAttribute(attrName);
-                        boolean matches = matchesValue(actualValue, expectedValue, caseSensitive, propertyResolution);
-
-                        if (matches) {
-                            found = true;
-                            break;
-                        }
+                // Mode 2: Attribute-value pairs
+                for (int i = 0; i < pairs.size(); i++) {
+                    Map<String, String> pair = pairs.get(i);
+                    if (pairFound[i] || !elementName.equals(pair.get("element"))) {
+                        continue;
                     }
+                    String attrName = pair.get("attribute");
+                    pairFound[i] = element.hasAttribute(attrName) && matchesValue(element.getAttribute(attrName),
+                            pair.get("expectedValue"), caseSensitive, propertyResolution);
                 }
 
-                if (!found) {
-                    failures.add(String.format("Element '%s' with attribute '%s'='%s' not found in file: %s",
-                            elementName, attrName, expectedValue, projectRoot.relativize(file)));
+                // Mode 3: Element attribute sets
+                for (int i = 0; i < sets.size(); i++) {
+                    Map<String, Object> set = sets.get(i);
+                    if (setFound[i] || !elementName.equals(set.get("element"))) {
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> attributesMap = (Map<String, String>) set.get("attributes");
+                    setFound[i] = hasAllAttributes(element, attributesMap, caseSensitive, propertyResolution);
                 }
-            }
+            });
         } catch (Exception e) {
-            failures.add("Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage());
+            // Each mode reports the parse error, as when the modes were evaluated separately
+            String error = "Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage();
+            int modes = (elements.isEmpty() ? 0 : 1) + (pairs.isEmpty() ? 0 : 1) + (sets.isEmpty() ? 0 : 1);
+            for (int i = 0; i < modes; i++) {
+                failures.add(error);
+            }
+            return;
         }
-    }
-
-    // Mode 3: Element attribute sets
-    private void validateElementAttributeSets(Path file, List<Map<String, Object>> sets,
-            boolean caseSensitive, boolean propertyResolution, Path projectRoot, List<String> failures) {
-        try {
-            Document doc = parseXml(file);
-
-            for (Map<String, Object> set : sets) {
-                String elementName = (String) set.get("element");
-                @SuppressWarnings("unchecked")
-                Map<String, String> attributesMap = (Map<String, String>) set.get("attributes");
-
-                NodeList nodeList = doc.getElementsByTagName(elementName);
-                boolean found = false;
-
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Element element = (Element) nodeList.item(i);
-                    boolean allMatch = true;
 
-                    for (Map.Entry<String, String> entry : attributesMap.entrySet()) {
-                        String attrName = entry.getKey();
-                        String expectedValue = entry.getValue();
-
-                        if (!element.hasAttribute(attrName)) {
-                            allMatch = false;
-                            break;
-                        }
-
-                        String actualValue = element.getAttribute(attrName);
-                        boolean matches = matchesValue(actualValue, expectedValue, caseSensitive, propertyResolution);
+        for (int i = 0; i < elements.size(); i++) {
+            failures.addAll(simpleFailures.get(i));
+            if (simpleCounts[i] == 0) {
+                failures.add(String.format("Element '%s' not found in file: %s",
+                        elements.get(i), projectRoot.relativize(file)));
+            }
+        }
 
-                        if (!matches) {
-                            allMatch = false;
-                            break;
-                        }
-                    }
+        for (int i = 0; i < pairs.size(); i++) {
+            if (!pairFound[i]) {
+                Map<String, String> pair = pairs.get(i);
+                failures.add(String.format("Element '%s' with attribute '%s'='%s' not found in file: %s",
+                        pair.get("element"), pair.get("attribute"), pair.get("expectedValue"),
+                        projectRoot.relativize(file)));
+            }
+        }
 
-                    if (allMatch) {
-                        found = true;
-                        break;
-                    }
-                }
+        for (int i = 0; i < sets.size(); i++) {
+            if (!setFound[i]) {
+                failures.add(String.format("Element '%s' with required attributes %s not found in file: %s",
+                        sets.get(i).get("element"), sets.get(i).get("attributes"), projectRoot.relativize(file)));
+            }
+        }
+    }
 
-                if (!found) {
-                    failures.add(String.format("Element '%s' with required attributes %s not found in file: %s",
-                            elementName, attributesMap, projectRoot.relativize(file)));
-                }
+    private boolean hasAllAttributes(XmlElementStream.StreamedElement element, Map<String, String> attributesMap,
+            boolean caseSensitive, boolean propertyResolution) {
+        for (Map.Entry<String, String> entry : attributesMap.entrySet()) {
+            String attrName = entry.getKey();
+            if (!element.hasAttribute(attrName)
+                    || !matchesValue(element.getAttribute(attrName), entry.getValue(), caseSensitive,
+                            propertyResolution)) {
+                return false;
             }
-        } catch (Exception e) {
-            failures.add("Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage());
         }
+        return true;
     }
 
     /**
@@ -243,7 +218,7 @@ public class XmlAttributeExistsCheck extends AbstractCheck {
     private boolean matchesValue(String actualValue, String expectedValue, boolean caseSensitive,
             boolean propertyResolution) {
         // If property resolution is enabled and actual value is a property placeholder
-        if (propertyResolution && actualValue.matches("\\$\\{[^}]+\\}")) {
+        if (propertyResolution && PROPERTY_PLACEHOLDER.matcher(actualValue).matches()) {
             // Property placeholder found - this is considered a match
             return true;
         }
@@ -251,33 +226,4 @@ public class XmlAttributeExistsCheck extends AbstractCheck {
         // Otherwise, do exact/case-insensitive match
         return caseSensitive ? actualValue.equals(expectedValue) : actualValue.equalsIgnoreCase(expectedValue);
     }
-
-    private Document parseXml(Path file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(file.toFile());
-    }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
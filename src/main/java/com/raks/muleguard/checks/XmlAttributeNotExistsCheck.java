@@ -1,20 +1,14 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.XmlElementStream;
 import com.raks.muleguard.model.CheckResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Stream;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 /**
  * XML Attribute Not Exists Check - Validates that forbidden attributes do NOT
@@ -31,7 +25,7 @@ import org.w3c.dom.NodeList;
 public class XmlAttributeNotExistsCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -57,25 +51,16 @@ public class XmlAttributeNotExistsCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .toList();
-
-            if (matchingFiles.isEmpty()) {
-                // No files to check - pass (nothing forbidden found)
-                return CheckResult.pass(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns (nothing to validate)");
-            }
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns));
 
-            for (Path file : matchingFiles) {
-                validateForbiddenAttributes(file, elements, forbiddenAttributes, projectRoot, failures);
-            }
+        if (matchingFiles.isEmpty()) {
+            // No files to check - pass (nothing forbidden found)
+            return CheckResult.pass(check.getRuleId(), check.getDescription(),
+                    "No files found matching patterns (nothing to validate)");
+        }
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+        for (Path file : matchingFiles) {
+            validateForbiddenAttributes(file, elements, forbiddenAttributes, context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -88,55 +73,32 @@ public class XmlAttributeNotExistsCheck extends AbstractCheck {
     }
 
     private void validateForbiddenAttributes(Path file, List<String> elements, List<String> forbiddenAttributes,
-            Path projectRoot, List<String> failures) {
-        try {
-            Document doc = parseXml(file);
-
-            for (String elementName : elements) {
-                NodeList nodeList = doc.getElementsByTagName(elementName);
-
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Element element = (Element) nodeList.item(i);
+            ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
+        // Failures per configured element, so they are reported in configuration order
+        List<List<String>> elementFailures = new ArrayList<>();
+        for (int i = 0; i < elements.size(); i++) {
+            elementFailures.add(new ArrayList<>());
+        }
 
+        try {
+            XmlElementStream.scan(context, file, new HashSet<>(elements), false, element -> {
+                for (int i = 0; i < elements.size(); i++) {
+                    if (!element.getName().equals(elements.get(i))) {
+                        continue;
+                    }
                     for (String attrName : forbiddenAttributes) {
                         if (element.hasAttribute(attrName)) {
-                            failures.add(String.format("Forbidden attribute '%s' found on element '%s' in file: %s",
-                                    attrName, elementName, projectRoot.relativize(file)));
+                            elementFailures.get(i).add(String.format(
+                                    "Forbidden attribute '%s' found on element '%s' in file: %s",
+                                    attrName, elements.get(i), projectRoot.relativize(file)));
                         }
                     }
                 }
-            }
+            });
+            elementFailures.forEach(failures::addAll);
         } catch (Exception e) {
             failures.add("Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage());
         }
     }
-
-    private Document parseXml(Path file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(file.toFile());
-    }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
@@ -1,22 +1,18 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.XmlElementStream;
 import com.raks.muleguard.model.CheckResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 /**
  * XML Element Content Forbidden Check - Validates that XML elements do NOT
@@ -33,7 +29,23 @@ import org.w3c.dom.NodeList;
 public class XmlElementContentForbiddenCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> pairs = (List<Map<String, Object>>) check.getParams().get("elementTokenPairs");
+        String matchMode = (String) check.getParams().getOrDefault("matchMode", "SUBSTRING");
+        if (pairs == null || !"REGEX".equalsIgnoreCase(matchMode)) {
+            return;
+        }
+        Boolean caseSensitive = (Boolean) check.getParams().getOrDefault("caseSensitive", true);
+        for (Map<String, Object> pair : pairs) {
+            @SuppressWarnings("unchecked")
+            List<String> tokens = (List<String>) pair.get("forbiddenTokens");
+            compileRegexes(check, tokens, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -56,25 +68,16 @@ public class XmlElementContentForbiddenCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .toList();
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns));
 
-            if (matchingFiles.isEmpty()) {
-                // No files to check - pass (nothing forbidden found)
-                return CheckResult.pass(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns (nothing to validate)");
-            }
-
-            for (Path file : matchingFiles) {
-                validateForbiddenContent(file, elementTokenPairs, matchMode, caseSensitive, projectRoot, failures);
-            }
+        if (matchingFiles.isEmpty()) {
+            // No files to check - pass (nothing forbidden found)
+            return CheckResult.pass(check.getRuleId(), check.getDescription(),
+                    "No files found matching patterns (nothing to validate)");
+        }
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+        for (Path file : matchingFiles) {
+            validateForbiddenContent(check, file, elementTokenPairs, matchMode, caseSensitive, context, failures);
         }
 
         if (failures.isEmpty()) {
@@ -86,46 +89,55 @@ public class XmlElementContentForbiddenCheck extends AbstractCheck {
         }
     }
 
-    private void validateForbiddenContent(Path file, List<Map<String, Object>> pairs, String matchMode,
-            boolean caseSensitive, Path projectRoot, List<String> failures) {
-        try {
-            Document doc = parseXml(file);
-
-            for (Map<String, Object> pair : pairs) {
-                String elementName = (String) pair.get("element");
-                @SuppressWarnings("unchecked")
-                List<String> forbiddenTokens = (List<String>) pair.get("forbiddenTokens");
-
-                if (elementName == null || forbiddenTokens == null || forbiddenTokens.isEmpty()) {
-                    continue; // Skip invalid configuration
-                }
-
-                NodeList nodeList = doc.getElementsByTagName(elementName);
+    private void validateForbiddenContent(CompiledCheck check, Path file, List<Map<String, Object>> pairs,
+            String matchMode, boolean caseSensitive, ProjectContext context, List<String> failures) {
+        Path projectRoot = context.getProjectRoot();
+        Set<String> elementNames = new HashSet<>();
+        for (Map<String, Object> pair : pairs) {
+            elementNames.add((String) pair.get("element"));
+        }
+        // Failures per pair and element, keyed by document order: elements arrive at their end tag
+        List<TreeMap<Integer, List<String>>> pairFailures = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            pairFailures.add(new TreeMap<>());
+        }
 
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Element element = (Element) nodeList.item(i);
-                    String content = element.getTextContent();
+        try {
+            XmlElementStream.scan(context, file, elementNames, true, element -> {
+                for (int i = 0; i < pairs.size(); i++) {
+                    Map<String, Object> pair = pairs.get(i);
+                    @SuppressWarnings("unchecked")
+                    List<String> forbiddenTokens = (List<String>) pair.get("forbiddenTokens");
+                    if (!element.getName().equals(pair.get("element"))
+                            || forbiddenTokens == null || forbiddenTokens.isEmpty()) {
+                        continue; // Skip invalid configuration
+                    }
 
                     // Check if any forbidden token is present
+                    String content = element.getTextContent();
                     for (String token : forbiddenTokens) {
-                        if (containsToken(content, token, matchMode, caseSensitive)) {
-                            failures.add(String.format("Forbidden token '%s' found in element '%s' in file: %s",
-                                    token, elementName, projectRoot.relativize(file)));
+                        if (containsToken(check, content, token, matchMode, caseSensitive)) {
+                            pairFailures.get(i).computeIfAbsent(element.getOrdinal(), k -> new ArrayList<>())
+                                    .add(String.format("Forbidden token '%s' found in element '%s' in file: %s",
+                                            token, element.getName(), projectRoot.relativize(file)));
                         }
                     }
                 }
+            });
+            for (TreeMap<Integer, List<String>> elementFailures : pairFailures) {
+                elementFailures.values().forEach(failures::addAll);
             }
-
         } catch (Exception e) {
             failures.add("Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage());
         }
     }
 
-    private boolean containsToken(String content, String token, String matchMode, boolean caseSensitive) {
+    private boolean containsToken(CompiledCheck check, String content, String token, String matchMode,
+            boolean caseSensitive) {
         if ("REGEX".equalsIgnoreCase(matchMode)) {
             try {
                 int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
-                Pattern pattern = Pattern.compile(token, flags);
+                Pattern pattern = check.getPattern(token, flags);
                 return pattern.matcher(content).find();
             } catch (Exception e) {
                 // Invalid regex - fall back to substring
@@ -144,33 +156,4 @@ public class XmlElementContentForbiddenCheck extends AbstractCheck {
             return content.toLowerCase().contains(token.toLowerCase());
         }
     }
-
-    private Document parseXml(Path file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(file.toFile());
-    }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
@@ -1,22 +1,17 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.XmlElementStream;
 import com.raks.muleguard.model.CheckResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 /**
  * XML Element Content Required Check - Validates that XML elements contain
@@ -34,7 +29,23 @@ import org.w3c.dom.NodeList;
 public class XmlElementContentRequiredCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> pairs = (List<Map<String, Object>>) check.getParams().get("elementContentPairs");
+        String matchMode = (String) check.getParams().getOrDefault("matchMode", "SUBSTRING");
+        if (pairs == null || !"REGEX".equalsIgnoreCase(matchMode)) {
+            return;
+        }
+        Boolean caseSensitive = (Boolean) check.getParams().getOrDefault("caseSensitive", true);
+        for (Map<String, Object> pair : pairs) {
+            @SuppressWarnings("unchecked")
+            List<String> tokens = (List<String>) pair.get("requiredTokens");
+            compileRegexes(check, tokens, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -59,25 +70,16 @@ public class XmlElementContentRequiredCheck extends AbstractCheck {
         List<String> failures = new ArrayList<>();
         List<String> successes = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .toList();
-
-            if (matchingFiles.isEmpty()) {
-                return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns: " + filePatterns);
-            }
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns));
 
-            for (Path file : matchingFiles) {
-                validateElementContent(file, elementContentPairs, matchMode, caseSensitive,
-                        projectRoot, failures, successes);
-            }
-
-        } catch (IOException e) {
+        if (matchingFiles.isEmpty()) {
             return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+                    "No files found matching patterns: " + filePatterns);
+        }
+
+        for (Path file : matchingFiles) {
+            validateElementContent(check, file, elementContentPairs, matchMode, caseSensitive,
+                    context, failures, successes);
         }
 
         // Determine result based on requireAll
@@ -102,63 +104,67 @@ public class XmlElementContentRequiredCheck extends AbstractCheck {
         }
     }
 
-    private void validateElementContent(Path file, List<Map<String, Object>> pairs, String matchMode,
-            boolean caseSensitive, Path projectRoot,
+    private void validateElementContent(CompiledCheck check, Path file, List<Map<String, Object>> pairs,
+            String matchMode, boolean caseSensitive, ProjectContext context,
             List<String> failures, List<String> successes) {
-        try {
-            Document doc = parseXml(file);
-
-            for (Map<String, Object> pair : pairs) {
-                String elementName = (String) pair.get("element");
-                @SuppressWarnings("unchecked")
-                List<String> requiredTokens = (List<String>) pair.get("requiredTokens");
-
-                if (elementName == null || requiredTokens == null || requiredTokens.isEmpty()) {
-                    failures.add(
-                            "Invalid element-content pair configuration in file: " + file.getFileName().toString());
-                    continue;
-                }
-
-                NodeList nodeList = doc.getElementsByTagName(elementName);
-                boolean found = false;
+        Set<String> elementNames = new HashSet<>();
+        for (Map<String, Object> pair : pairs) {
+            elementNames.add((String) pair.get("element"));
+        }
+        boolean[] found = new boolean[pairs.size()];
 
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Element element = (Element) nodeList.item(i);
-                    String content = element.getTextContent();
+        try {
+            XmlElementStream.scan(context, file, elementNames, true, element -> {
+                for (int i = 0; i < pairs.size(); i++) {
+                    Map<String, Object> pair = pairs.get(i);
+                    @SuppressWarnings("unchecked")
+                    List<String> requiredTokens = (List<String>) pair.get("requiredTokens");
+                    if (found[i] || !element.getName().equals(pair.get("element"))
+                            || requiredTokens == null || requiredTokens.isEmpty()) {
+                        continue;
+                    }
 
                     // Check if all required tokens are present in this element
+                    String content = element.getTextContent();
                     boolean allTokensFound = true;
                     for (String token : requiredTokens) {
-                        if (!containsToken(content, token, matchMode, caseSensitive)) {
+                        if (!containsToken(check, content, token, matchMode, caseSensitive)) {
                             allTokensFound = false;
                             break;
                         }
                     }
-
-                    if (allTokensFound) {
-                        found = true;
-                        successes.add(String.format("%s element '%s' has required tokens: %s",
-                                file.getFileName().toString(), elementName, String.join(", ", requiredTokens)));
-                        break;
-                    }
-                }
-
-                if (!found) {
-                    failures.add(String.format("%s element '%s' is missing required tokens: %s",
-                            file.getFileName().toString(), elementName, String.join(", ", requiredTokens)));
+                    found[i] = allTokensFound;
                 }
-            }
-
+            });
         } catch (Exception e) {
             failures.add("Error parsing XML file " + file.getFileName().toString() + ": " + e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < pairs.size(); i++) {
+            String elementName = (String) pairs.get(i).get("element");
+            @SuppressWarnings("unchecked")
+            List<String> requiredTokens = (List<String>) pairs.get(i).get("requiredTokens");
+
+            if (elementName == null || requiredTokens == null || requiredTokens.isEmpty()) {
+                failures.add(
+                        "Invalid element-content pair configuration in file: " + file.getFileName().toString());
+            } else if (found[i]) {
+                successes.add(String.format("%s element '%s' has required tokens: %s",
+                        file.getFileName().toString(), elementName, String.join(", ", requiredTokens)));
+            } else {
+                failures.add(String.format("%s element '%s' is missing required tokens: %s",
+                        file.getFileName().toString(), elementName, String.join(", ", requiredTokens)));
+            }
         }
     }
 
-    private boolean containsToken(String content, String token, String matchMode, boolean caseSensitive) {
+    private boolean containsToken(CompiledCheck check, String content, String token, String matchMode,
+            boolean caseSensitive) {
         if ("REGEX".equalsIgnoreCase(matchMode)) {
             try {
                 int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
-                Pattern pattern = Pattern.compile(token, flags);
+                Pattern pattern = check.getPattern(token, flags);
                 return pattern.matcher(content).find();
             } catch (Exception e) {
                 // Invalid regex - fall back to substring
@@ -177,33 +183,4 @@ public class XmlElementContentRequiredCheck extends AbstractCheck {
             return content.toLowerCase().contains(token.toLowerCase());
         }
     }
-
-    private Document parseXml(Path file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(file.toFile());
-    }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
@@ -1,20 +1,16 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-import java.io.IOException;
-import java.nio.file.Files;
+import javax.xml.xpath.XPathExpressionException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
@@ -34,7 +30,33 @@ import org.w3c.dom.NodeList;
 public class XmlXPathExistsCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> xpathExpressions = (List<Map<String, String>>) check.getParams()
+                .get("xpathExpressions");
+        if (xpathExpressions == null) {
+            return;
+        }
+        List<String> xpaths = new ArrayList<>();
+        for (Map<String, String> xpathExpr : xpathExpressions) {
+            xpaths.add(xpathExpr.get("xpath"));
+        }
+        check.setStreamingXPaths(xpaths);
+        for (Map<String, String> xpathExpr : xpathExpressions) {
+            String xpathString = xpathExpr.get("xpath");
+            if (xpathString == null || xpathString.isEmpty()) {
+                continue;
+            }
+            try {
+                check.getXPath(xpathString);
+            } catch (XPathExpressionException e) {
+                check.addConfigError("Invalid XPath '" + xpathString + "': " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -57,25 +79,20 @@ public class XmlXPathExistsCheck extends AbstractCheck {
         List<String> failures = new ArrayList<>();
         List<String> successes = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .toList();
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns));
 
-            if (matchingFiles.isEmpty()) {
-                return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns: " + filePatterns);
-            }
+        if (matchingFiles.isEmpty()) {
+            return CheckResult.fail(check.getRuleId(), check.getDescription(),
+                    "No files found matching patterns: " + filePatterns);
+        }
 
-            for (Path file : matchingFiles) {
-                validateXPathsInFile(file, xpathExpressions, requireAll, propertyResolution,
-                        projectRoot, failures, successes);
+        for (Path file : matchingFiles) {
+            if (!requireAll && !successes.isEmpty()) {
+                // One match anywhere already decides the check
+                break;
             }
-
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+            validateXPathsInFile(check, file, xpathExpressions, requireAll, propertyResolution,
+                    context, failures, successes);
         }
 
         // Determine result based on requireAll
@@ -100,19 +117,20 @@ public class XmlXPathExistsCheck extends AbstractCheck {
         }
     }
 
-    private void validateXPathsInFile(Path file, List<Map<String, String>> xpathExpressions,
+    private void validateXPathsInFile(CompiledCheck check, Path file, List<Map<String, String>> xpathExpressions,
             boolean requireAll, boolean propertyResolution,
-            Path projectRoot, List<String> failures, List<String> successes) {
+            ProjectContext context, List<String> failures, List<String> successes) {
+        Path projectRoot = context.getProjectRoot();
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(file.toFile());
-
-            XPathFactory xPathFactory = XPathFactory.newInstance();
-            XPath xpath = xPathFactory.newXPath();
-
-            for (Map<String, String> xpathExpr : xpathExpressions) {
+            // Streamable XPaths come from the fused pass, the others from the DOM.
+            // Only existence matters, so the file is read up to the deciding match.
+            BitSet all = new BitSet();
+            all.set(0, xpathExpressions.size());
+            int[] streamed = context.findXPathMatches(check, file, all, !requireAll);
+            Document doc = check.hasDomXPaths() ? context.getXmlDocuments().get(file) : null;
+
+            for (int i = 0; i < xpathExpressions.size(); i++) {
+                Map<String, String> xpathExpr = xpathExpressions.get(i);
                 String xpathString = xpathExpr.get("xpath");
                 String failureMessage = xpathExpr.getOrDefault("failureMessage",
                         "XPath not found: " + xpathString);
@@ -123,10 +141,21 @@ public class XmlXPathExistsCheck extends AbstractCheck {
                 }
 
                 try {
-                    NodeList nodes = (NodeList) xpath.evaluate(xpathString, doc, XPathConstants.NODESET);
+                    int matches;
+                    if (check.isStreamingXPath(i)) {
+                        matches = streamed[i];
+                    } else {
+                        synchronized (doc) {
+                            matches = ((NodeList) check.getXPath(xpathString).evaluate(doc, XPathConstants.NODESET))
+                                    .getLength();
+                        }
+                    }
 
-                    if (nodes.getLength() > 0) {
+                    if (matches > 0) {
                         successes.add("XPath found in " + projectRoot.relativize(file) + ": " + xpathString);
+                        if (!requireAll) {
+                            return;
+                        }
                     } else {
                         failures.add(failureMessage + " in file: " + projectRoot.relativize(file));
                     }
@@ -135,32 +164,8 @@ public class XmlXPathExistsCheck extends AbstractCheck {
                             ": " + xpathString + " - " + e.getMessage());
                 }
             }
-
         } catch (Exception e) {
             failures.add("Error parsing XML file " + projectRoot.relativize(file) + ": " + e.getMessage());
         }
     }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        // Convert glob pattern to regex
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
@@ -1,20 +1,15 @@
 package com.raks.muleguard.checks;
 
-import com.raks.muleguard.model.Check;
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.ProjectContext;
 import com.raks.muleguard.model.CheckResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-import java.io.IOException;
-import java.nio.file.Files;
+import javax.xml.xpath.XPathExpressionException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
@@ -34,7 +29,33 @@ import org.w3c.dom.NodeList;
 public class XmlXPathNotExistsCheck extends AbstractCheck {
 
     @Override
-    public CheckResult execute(Path projectRoot, Check check) {
+    public void compile(CompiledCheck check) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> xpathExpressions = (List<Map<String, String>>) check.getParams()
+                .get("xpathExpressions");
+        if (xpathExpressions == null) {
+            return;
+        }
+        List<String> xpaths = new ArrayList<>();
+        for (Map<String, String> xpathExpr : xpathExpressions) {
+            xpaths.add(xpathExpr.get("xpath"));
+        }
+        check.setStreamingXPaths(xpaths);
+        for (Map<String, String> xpathExpr : xpathExpressions) {
+            String xpathString = xpathExpr.get("xpath");
+            if (xpathString == null || xpathString.isEmpty()) {
+                continue;
+            }
+            try {
+                check.getXPath(xpathString);
+            } catch (XPathExpressionException e) {
+                check.addConfigError("Invalid XPath '" + xpathString + "': " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public CheckResult execute(ProjectContext context, CompiledCheck check) {
         @SuppressWarnings("unchecked")
         List<String> filePatterns = (List<String>) check.getParams().get("filePatterns");
         @SuppressWarnings("unchecked")
@@ -55,25 +76,16 @@ public class XmlXPathNotExistsCheck extends AbstractCheck {
 
         List<String> failures = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> matchingFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> matchesAnyPattern(path, filePatterns, projectRoot))
-                    .toList();
+        List<Path> matchingFiles = context.getFileIndex().matching(check.getGlobs(filePatterns));
 
-            if (matchingFiles.isEmpty()) {
-                // No files to check - pass (nothing forbidden found)
-                return CheckResult.pass(check.getRuleId(), check.getDescription(),
-                        "No files found matching patterns (nothing to validate)");
-            }
-
-            for (Path file : matchingFiles) {
-                validateXPathsNotInFile(file, xpathExpressions, propertyResolution, projectRoot, failures);
-            }
+        if (matchingFiles.isEmpty()) {
+            // No files to check - pass (nothing forbidden found)
+            return CheckResult.pass(check.getRuleId(), check.getDescription(),
+                    "No files found matching patterns (nothing to validate)");
+        }
 
-        } catch (IOException e) {
-            return CheckResult.fail(check.getRuleId(), check.getDescription(),
-                    "Error scanning files: " + e.getMessage());
+        for (Path file : matchingFiles) {
+            validateXPathsNotInFile(check, file, xpathExpressions, propertyResolution, context, failures);
         }
 
         // Fail if ANY forbidden XPath was found
@@ -86,18 +98,15 @@ public class XmlXPathNotExistsCheck extends AbstractCheck {
         }
     }
 
-    private void validateXPathsNotInFile(Path file, List<Map<String, String>> xpathExpressions,
-            boolean propertyResolution, Path projectRoot, List<String> failures) {
+    private void validateXPathsNotInFile(CompiledCheck check, Path file, List<Map<String, String>> xpathExpressions,
+            boolean propertyResolution, ProjectContext context, List<String> failures) {
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(file.toFile());
-
-            XPathFactory xPathFactory = XPathFactory.newInstance();
-            XPath xpath = xPathFactory.newXPath();
+            // Streamable XPaths come from the fused pass, the others from the DOM
+            int[] streamed = context.findXPathMatches(check, file);
+            Document doc = check.hasDomXPaths() ? context.getXmlDocuments().get(file) : null;
 
-            for (Map<String, String> xpathExpr : xpathExpressions) {
+            for (int i = 0; i < xpathExpressions.size(); i++) {
+                Map<String, String> xpathExpr = xpathExpressions.get(i);
                 String xpathString = xpathExpr.get("xpath");
                 String failureMessage = xpathExpr.getOrDefault("failureMessage",
                         "Forbidden XPath found: " + xpathString);
@@ -107,44 +116,28 @@ public class XmlXPathNotExistsCheck extends AbstractCheck {
                 }
 
                 try {
-                    NodeList nodes = (NodeList) xpath.evaluate(xpathString, doc, XPathConstants.NODESET);
+                    int matches;
+                    if (check.isStreamingXPath(i)) {
+                        matches = streamed[i];
+                    } else {
+                        synchronized (doc) {
+                            matches = ((NodeList) check.getXPath(xpathString).evaluate(doc, XPathConstants.NODESET))
+                                    .getLength();
+                        }
+                    }
 
-                    if (nodes.getLength() > 0) {
+                    if (matches > 0) {
                         // Forbidden XPath found - this is a failure
                         failures.add(file.getFileName().toString() + ": " + failureMessage +
-                                " (found " + nodes.getLength() + " occurrence(s))");
+                                " (found " + matches + " occurrence(s))");
                     }
                 } catch (Exception e) {
                     failures.add("XPath evaluation error in " + file.getFileName().toString() +
                             ": " + xpathString + " - " + e.getMessage());
                 }
             }
-
         } catch (Exception e) {
             failures.add("Error parsing XML file " + file.getFileName().toString() + ": " + e.getMessage());
         }
     }
-
-    private boolean matchesAnyPattern(Path path, List<String> patterns, Path projectRoot) {
-        String relativePath = projectRoot.relativize(path).toString().replace("\\", "/");
-
-        for (String pattern : patterns) {
-            if (matchesPattern(relativePath, pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean matchesPattern(String path, String pattern) {
-        // Convert glob pattern to regex
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**/", ".*")
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return path.matches(regex);
-    }
 }
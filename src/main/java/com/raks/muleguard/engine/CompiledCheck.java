@@ -0,0 +1,415 @@
+package com.raks.muleguard.engine;
+
+import com.raks.muleguard.model.Check;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Run-scoped form of a {@link Check}.
+ *
+ * A compiled check is created once per run (see {@link RuleCompiler}) and
+ * shared by every project validated in that run. Its params are read-only, and
+ * the regexes, file globs and XPath expressions it uses are compiled once and
+ * memoized, instead of being compiled again for every file of every project.
+ * Invalid expressions are memoized too and reported once as config errors.
+ *
+ * A compiled check is mutable only while the rule plan is built: the check's
+ * compile hook declares its literal tokens and streaming XPaths
+ * ({@link #setLiteralTokens}, {@link #setStreamingXPaths}), and the fused
+ * scanners are attached after all checks are compiled. Once
+ * {@link RuleCompiler#compile} returns, it is read-only apart from the
+ * thread-safe memoized expressions, and may be shared between threads.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class CompiledCheck {
+
+    private final String type;
+    private final String description;
+    private final String ruleId;
+    private final Map<String, Object> params;
+
+    private final List<String> configErrors = new CopyOnWriteArrayList<>();
+    private final Map<RegexKey, Object> regexes = new ConcurrentHashMap<>();
+    private final Map<String, Pattern> globs = new ConcurrentHashMap<>();
+    private final Map<String, Object> pathMatchers = new ConcurrentHashMap<>();
+    private final Map<XPathKey, ThreadLocal<XPathExpression>> xpaths = new ConcurrentHashMap<>();
+    private final Map<List<String>, TokenMatcher> tokenMatchers = new ConcurrentHashMap<>();
+    private final Map<List<String>, TokenMatcher> caseInsensitiveTokenMatchers = new ConcurrentHashMap<>();
+
+    private List<String> literalTokens;
+    private boolean literalTokensIgnoreCase;
+    private FusedTokenScanner tokenScanner;
+    private int[] tokenIds;
+
+    private List<String> streamingXPaths;
+    private FusedXPathMatcher xpathMatcher;
+    private int[] xpathIds;
+
+    public CompiledCheck(Check check, String ruleId) {
+        this.type = check.getType();
+        this.description = check.getDescription();
+        this.ruleId = ruleId;
+        this.params = check.getParams() != null
+                ? freeze(check.getParams())
+                : Collections.emptyMap();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * @return The read-only check parameters (nested maps and lists are read-only
+     *         as well)
+     */
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    /**
+     * Records a configuration problem found while compiling this check; reported
+     * once per run.
+     */
+    public void addConfigError(String error) {
+        configErrors.add(error);
+    }
+
+    public List<String> getConfigErrors() {
+        return Collections.unmodifiableList(configErrors);
+    }
+
+    /**
+     * Returns the compiled regex. An invalid regex throws the same
+     * {@link PatternSyntaxException} on every call, so callers keep their
+     * fallback behaviour.
+     */
+    public Pattern getPattern(String regex, int flags) {
+        Object compiled = regexes.computeIfAbsent(new RegexKey(regex, flags), key -> {
+            try {
+                return Pattern.compile(key.regex, key.flags);
+            } catch (PatternSyntaxException e) {
+                return e;
+            }
+        });
+        if (compiled instanceof PatternSyntaxException) {
+            throw (PatternSyntaxException) compiled;
+        }
+        return (Pattern) compiled;
+    }
+
+    public Pattern getPattern(String regex) {
+        return getPattern(regex, 0);
+    }
+
+    /**
+     * Compiles the "filePatterns" style globs matched against project-relative
+     * paths.
+     *
+     * @see ProjectFileIndex#globToRegex(String)
+     */
+    public List<Pattern> getGlobs(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Pattern> compiled = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            compiled.add(globs.computeIfAbsent(pattern, p -> Pattern.compile(ProjectFileIndex.globToRegex(p))));
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the multi-token matcher that finds all of the given literal tokens
+     * in one pass over a text.
+     */
+    public TokenMatcher getTokenMatcher(List<String> tokens, boolean ignoreCase) {
+        Map<List<String>, TokenMatcher> matchers = ignoreCase ? caseInsensitiveTokenMatchers : tokenMatchers;
+        return matchers.computeIfAbsent(tokens, t -> TokenMatcher.compile(t, ignoreCase));
+    }
+
+    /**
+     * Declares the literal tokens this check searches for, so they are included
+     * in the fused per-file token scan of the rule plan (see
+     * {@link FusedTokenScanner}). Called from the check's compile hook.
+     */
+    public void setLiteralTokens(List<String> tokens, boolean ignoreCase) {
+        this.literalTokens = tokens;
+        this.literalTokensIgnoreCase = ignoreCase;
+    }
+
+    public List<String> getLiteralTokens() {
+        return literalTokens;
+    }
+
+    public boolean isLiteralTokensIgnoreCase() {
+        return literalTokensIgnoreCase;
+    }
+
+    void setTokenScanner(FusedTokenScanner tokenScanner, int[] tokenIds) {
+        this.tokenScanner = tokenScanner;
+        this.tokenIds = tokenIds;
+    }
+
+    FusedTokenScanner getTokenScanner() {
+        return tokenScanner;
+    }
+
+    /**
+     * Maps the token ids found by the fused scan to indices into this check's
+     * literal tokens.
+     */
+    BitSet toLiteralTokenIndices(BitSet foundIds) {
+        BitSet found = new BitSet(tokenIds.length);
+        for (int i = 0; i < tokenIds.length; i++) {
+            if (foundIds.get(tokenIds[i])) {
+                found.set(i);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Declares the XPath expressions this check evaluates (null entries are
+     * allowed), so the ones within the {@link StreamingXPath} subset are
+     * evaluated in the fused per-file pass of the rule plan (see
+     * {@link FusedXPathMatcher}). Called from the check's compile hook.
+     */
+    public void setStreamingXPaths(List<String> xpaths) {
+        this.streamingXPaths = xpaths;
+    }
+
+    public List<String> getStreamingXPaths() {
+        return streamingXPaths;
+    }
+
+    void setXPathMatcher(FusedXPathMatcher xpathMatcher, int[] xpathIds) {
+        this.xpathMatcher = xpathMatcher;
+        this.xpathIds = xpathIds;
+    }
+
+    FusedXPathMatcher getXPathMatcher() {
+        return xpathMatcher;
+    }
+
+    /**
+     * @return Whether the declared XPath at the index is evaluated by the fused
+     *         streaming pass, see {@link ProjectContext#findXPathMatches}
+     */
+    public boolean isStreamingXPath(int index) {
+        return xpathIds != null && xpathIds[index] >= 0;
+    }
+
+    /**
+     * @return Whether any declared, non-empty XPath has to be evaluated on the
+     *         DOM of the file
+     */
+    public boolean hasDomXPaths() {
+        if (streamingXPaths == null || xpathIds == null) {
+            return true;
+        }
+        for (int i = 0; i < xpathIds.length; i++) {
+            Object xpath = streamingXPaths.get(i);
+            if (xpathIds[i] < 0 && xpath != null && !"".equals(xpath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maps declared XPath indexes to the ids of their fused expressions,
+     * leaving out the ones that are not streamed.
+     */
+    int[] toXPathIds(BitSet indexes) {
+        return indexes.stream()
+                .filter(this::isStreamingXPath)
+                .map(i -> xpathIds[i])
+                .toArray();
+    }
+
+    /**
+     * Maps the per-expression counts of the fused pass to this check's
+     * declared XPaths (0 for the ones that are not streamed).
+     */
+    int[] toXPathCounts(int[] counts) {
+        int[] local = new int[xpathIds.length];
+        for (int i = 0; i < xpathIds.length; i++) {
+            local[i] = xpathIds[i] >= 0 ? counts[xpathIds[i]] : 0;
+        }
+        return local;
+    }
+
+    /**
+     * Returns a {@link PathMatcher} of the default file system for a
+     * "syntax:pattern" string (e.g. a "glob:" pattern).
+     *
+     * @throws IllegalArgumentException If the pattern is invalid (on every call)
+     */
+    public PathMatcher getPathMatcher(String syntaxAndPattern) {
+        Object matcher = pathMatchers.computeIfAbsent(syntaxAndPattern, key -> {
+            try {
+                return FileSystems.getDefault().getPathMatcher(key);
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+        if (matcher instanceof RuntimeException) {
+            throw (RuntimeException) matcher;
+        }
+        return (PathMatcher) matcher;
+    }
+
+    /**
+     * Returns the compiled XPath expression (without namespace prefixes).
+     */
+    public XPathExpression getXPath(String expression) throws XPathExpressionException {
+        return getXPath(expression, Collections.emptyMap());
+    }
+
+    /**
+     * Returns the compiled XPath expression with prefixes bound to the given
+     * namespaces. Compiled expressions are not thread-safe, so each thread gets
+     * its own instance.
+     */
+    public XPathExpression getXPath(String expression, Map<String, String> namespaces)
+            throws XPathExpressionException {
+        XPathKey key = new XPathKey(expression, namespaces);
+        ThreadLocal<XPathExpression> compiled = xpaths.get(key);
+        if (compiled == null) {
+            // Compile once on the calling thread to surface syntax errors
+            XPathExpression first = compileXPath(expression, namespaces);
+            ThreadLocal<XPathExpression> perThread = ThreadLocal.withInitial(() -> {
+                try {
+                    return compileXPath(expression, namespaces);
+                } catch (XPathExpressionException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            perThread.set(first);
+            ThreadLocal<XPathExpression> existing = xpaths.putIfAbsent(key, perThread);
+            compiled = existing != null ? existing : perThread;
+        }
+        return compiled.get();
+    }
+
+    private static XPathExpression compileXPath(String expression, Map<String, String> namespaces)
+            throws XPathExpressionException {
+        XPath xpath = SharedParsers.xpath();
+        if (!namespaces.isEmpty()) {
+            xpath.setNamespaceContext(new MapNamespaceContext(namespaces));
+        }
+        return xpath.compile(expression);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T freeze(T value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<Object, Object>) value).forEach((k, v) -> copy.put(k, freeze(v)));
+            return (T) Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<Object>) value) {
+                copy.add(freeze(item));
+            }
+            return (T) Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static final class RegexKey {
+        final String regex;
+        final int flags;
+
+        RegexKey(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RegexKey && ((RegexKey) o).flags == flags && ((RegexKey) o).regex.equals(regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return regex.hashCode() * 31 + flags;
+        }
+    }
+
+    private static final class XPathKey {
+        final String expression;
+        final Map<String, String> namespaces;
+
+        XPathKey(String expression, Map<String, String> namespaces) {
+            this.expression = expression;
+            this.namespaces = namespaces;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof XPathKey && ((XPathKey) o).expression.equals(expression)
+                    && ((XPathKey) o).namespaces.equals(namespaces);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expression, namespaces);
+        }
+    }
+
+    /**
+     * Resolves XPath prefixes from a fixed prefix to namespace URI map
+     */
+    private static final class MapNamespaceContext implements NamespaceContext {
+        private final Map<String, String> namespaces;
+
+        MapNamespaceContext(Map<String, String> namespaces) {
+            this.namespaces = namespaces;
+        }
+
+        @Override
+        public String getNamespaceURI(String prefix) {
+            String uri = prefix != null ? namespaces.get(prefix) : null;
+            return uri != null ? uri : XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    }
+}
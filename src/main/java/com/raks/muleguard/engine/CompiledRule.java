@@ -0,0 +1,48 @@
+package com.raks.muleguard.engine;
+
+import com.raks.muleguard.model.Rule;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, run-scoped form of a {@link Rule} holding its compiled checks.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class CompiledRule {
+
+    private final String id;
+    private final String name;
+    private final String severity;
+    private final boolean enabled;
+    private final List<CompiledCheck> checks;
+
+    public CompiledRule(Rule rule, List<CompiledCheck> checks) {
+        this.id = rule.getId();
+        this.name = rule.getName();
+        this.severity = rule.getSeverity();
+        this.enabled = rule.isEnabled();
+        this.checks = Collections.unmodifiableList(checks);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<CompiledCheck> getChecks() {
+        return checks;
+    }
+}
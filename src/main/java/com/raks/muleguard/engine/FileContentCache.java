@@ -0,0 +1,196 @@
+package com.raks.muleguard.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-scoped cache of decoded (UTF-8) file contents shared by all checks.
+ *
+ * Entries are keyed by path and validated against the file's modification time,
+ * so a file changed during the run is read again. The cache is bounded by the
+ * memory the cached text takes (one byte per character for Latin-1 text, two
+ * otherwise, as the JVM stores strings) and evicts the least recently used
+ * entries first, which keeps memory flat when validating thousands of projects.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public class FileContentCache {
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Path, CachedContent> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FileContentCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes Upper bound for the memory taken by the text of all cached
+     *                 files; files whose text takes more are read but never
+     *                 cached
+     */
+    public FileContentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reads a file as UTF-8, like {@code Files.readString}: malformed input is
+     * reported with a {@link MalformedInputException}.
+     */
+    public String readString(Path file) throws IOException {
+        return readString(file, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    /**
+     * Same as {@link #readString(Path)} when the modification time of the file is
+     * already known (e.g. from the {@link ProjectFileIndex}).
+     */
+    public String readString(Path file, long lastModified) throws IOException {
+        CachedContent content = load(file, lastModified);
+        if (content.malformedLength > 0) {
+            throw new MalformedInputException(content.malformedLength);
+        }
+        return content.text;
+    }
+
+    /**
+     * Reads a file as UTF-8, replacing malformed input like
+     * {@code FileUtils.readFileToString(file, UTF_8)} does.
+     */
+    public String readStringLenient(Path file) throws IOException {
+        return readStringLenient(file, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    public String readStringLenient(Path file, long lastModified) throws IOException {
+        return load(file, lastModified).text;
+    }
+
+    private CachedContent load(Path file, long lastModified) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+
+        synchronized (this) {
+            CachedContent cached = entries.get(key);
+            if (cached != null && cached.lastModified == lastModified) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        byte[] bytes = Files.readAllBytes(key);
+        CachedContent content = decode(bytes, lastModified);
+
+        if (content.size <= maxBytes) {
+            store(key, content);
+        }
+        return content;
+    }
+
+    private synchronized void store(Path key, CachedContent content) {
+        CachedContent previous = entries.put(key, content);
+        if (previous != null) {
+            currentBytes -= previous.size;
+        }
+        currentBytes += content.size;
+
+        Iterator<Map.Entry<Path, CachedContent>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Path, CachedContent> entry = eldest.next();
+            currentBytes -= entry.getValue().size;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static CachedContent decode(byte[] bytes, long lastModified) {
+        try {
+            String text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+            return new CachedContent(text, heapSize(text, bytes.length), lastModified, 0);
+        } catch (CharacterCodingException e) {
+            int length = e instanceof MalformedInputException ? ((MalformedInputException) e).getInputLength() : 1;
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            return new CachedContent(text, heapSize(text, bytes.length), lastModified, length);
+        }
+    }
+
+    /**
+     * Bytes taken by the characters of a string: one per character if all are
+     * Latin-1, two otherwise. Text with as many characters as UTF-8 bytes is
+     * ASCII and needs no scan.
+     */
+    private static long heapSize(String text, int utf8Length) {
+        int length = text.length();
+        if (length == utf8Length) {
+            return length;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) > 0xFF) {
+                return 2L * length;
+            }
+        }
+        return length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * @return One-line summary of the cache counters for the end of a run
+     */
+    public String getStatistics() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return String.format("File content cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %.1f MB cached",
+                hitCount, getMisses(), total == 0 ? 0.0 : hitCount * 100.0 / total, getEvictions(),
+                getCurrentBytes() / (1024.0 * 1024.0));
+    }
+
+    private static final class CachedContent {
+        final String text;
+        /** Memory taken by the text, see {@link #heapSize} */
+        final long size;
+        final long lastModified;
+        /** Input length of the first malformed sequence, 0 if the file is valid UTF-8 */
+        final int malformedLength;
+
+        CachedContent(String text, long size, long lastModified, int malformedLength) {
+            this.text = text;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.malformedLength = malformedLength;
+        }
+    }
+}
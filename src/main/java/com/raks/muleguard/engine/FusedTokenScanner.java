@@ -0,0 +1,127 @@
+package com.raks.muleguard.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scans a file once for the literal tokens of all token checks of a rule plan.
+ *
+ * When rules are compiled, every check that declares literal tokens (see
+ * {@link CompiledCheck#setLiteralTokens(List, boolean)}) registers them here.
+ * The tokens of all checks are merged into one dictionary with at most two
+ * automata (case-sensitive and case-insensitive). A file scanned for one check
+ * therefore yields the matches for every other check as well, and the cost of
+ * scanning a file no longer grows with the number of token rules. Per-project
+ * scan results are kept by {@link ProjectContext#findLiteralTokens}.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class FusedTokenScanner {
+
+    private final TokenMatcher caseSensitive;
+    private final int[] caseSensitiveIds;
+    private final TokenMatcher caseInsensitive;
+    private final int[] caseInsensitiveIds;
+    private final int tokenCount;
+
+    private FusedTokenScanner(List<String> sensitiveTokens, List<Integer> sensitiveIds,
+            List<String> insensitiveTokens, List<Integer> insensitiveIds, int tokenCount) {
+        this.caseSensitive = sensitiveTokens.isEmpty() ? null : TokenMatcher.compile(sensitiveTokens, false);
+        this.caseSensitiveIds = toArray(sensitiveIds);
+        this.caseInsensitive = insensitiveTokens.isEmpty() ? null : TokenMatcher.compile(insensitiveTokens, true);
+        this.caseInsensitiveIds = toArray(insensitiveIds);
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * Builds the scanner for the literal tokens of the given checks and attaches
+     * it to them. Checks without literal tokens are left untouched.
+     */
+    public static FusedTokenScanner build(List<CompiledCheck> checks) {
+        Map<String, Integer> sensitiveIndex = new HashMap<>();
+        Map<String, Integer> insensitiveIndex = new HashMap<>();
+        List<String> sensitiveTokens = new ArrayList<>();
+        List<Integer> sensitiveIds = new ArrayList<>();
+        List<String> insensitiveTokens = new ArrayList<>();
+        List<Integer> insensitiveIds = new ArrayList<>();
+        int tokenCount = 0;
+
+        Map<CompiledCheck, int[]> registrations = new HashMap<>();
+        for (CompiledCheck check : checks) {
+            List<String> tokens = check.getLiteralTokens();
+            if (tokens == null || !allStrings(tokens)) {
+                // Misconfigured tokens fail when the check runs, as before
+                continue;
+            }
+            boolean ignoreCase = check.isLiteralTokensIgnoreCase();
+            Map<String, Integer> index = ignoreCase ? insensitiveIndex : sensitiveIndex;
+
+            int[] ids = new int[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                Integer id = index.get(tokens.get(i));
+                if (id == null) {
+                    id = tokenCount++;
+                    index.put(tokens.get(i), id);
+                    if (ignoreCase) {
+                        insensitiveTokens.add(tokens.get(i));
+                        insensitiveIds.add(id);
+                    } else {
+                        sensitiveTokens.add(tokens.get(i));
+                        sensitiveIds.add(id);
+                    }
+                }
+                ids[i] = id;
+            }
+            registrations.put(check, ids);
+        }
+
+        FusedTokenScanner scanner = new FusedTokenScanner(sensitiveTokens, sensitiveIds, insensitiveTokens,
+                insensitiveIds, tokenCount);
+        registrations.forEach((check, ids) -> check.setTokenScanner(scanner, ids));
+        return scanner;
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * @return The ids of all registered tokens contained in the text
+     */
+    public BitSet scan(CharSequence text) {
+        BitSet found = new BitSet(tokenCount);
+        scan(text, caseSensitive, caseSensitiveIds, found);
+        scan(text, caseInsensitive, caseInsensitiveIds, found);
+        return found;
+    }
+
+    private static void scan(CharSequence text, TokenMatcher matcher, int[] ids, BitSet found) {
+        if (matcher == null) {
+            return;
+        }
+        BitSet local = matcher.findAll(text);
+        for (int i = local.nextSetBit(0); i >= 0; i = local.nextSetBit(i + 1)) {
+            found.set(ids[i]);
+        }
+    }
+
+    private static boolean allStrings(List<?> tokens) {
+        for (Object token : tokens) {
+            if (!(token instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,167 @@
+package com.raks.muleguard.engine;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates the streamable XPath expressions of all XPath checks of a rule
+ * plan in one StAX pass per file.
+ *
+ * When rules are compiled, every check that declares its XPath expressions
+ * (see {@link CompiledCheck#setStreamingXPaths(List)}) registers them here.
+ * Expressions within the {@link StreamingXPath} subset are merged into one
+ * list; the others are marked as not streamed and the check keeps evaluating
+ * them on the DOM. Per-project results are kept by
+ * {@link ProjectContext#findXPathMatches}.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class FusedXPathMatcher {
+
+    private final StreamingXPath[] expressions;
+
+    private FusedXPathMatcher(List<StreamingXPath> expressions) {
+        this.expressions = expressions.toArray(new StreamingXPath[0]);
+    }
+
+    /**
+     * Builds the matcher for the XPath expressions of the given checks and
+     * attaches it to them. Checks without a streamable expression are left
+     * untouched.
+     */
+    public static FusedXPathMatcher build(List<CompiledCheck> checks) {
+        Map<String, Integer> index = new HashMap<>();
+        List<StreamingXPath> expressions = new ArrayList<>();
+
+        Map<CompiledCheck, int[]> registrations = new HashMap<>();
+        for (CompiledCheck check : checks) {
+            List<?> xpaths = check.getStreamingXPaths();
+            if (xpaths == null) {
+                continue;
+            }
+            int[] ids = new int[xpaths.size()];
+            boolean streamed = false;
+            for (int i = 0; i < xpaths.size(); i++) {
+                ids[i] = -1;
+                if (!(xpaths.get(i) instanceof String)) {
+                    continue;
+                }
+                String xpath = (String) xpaths.get(i);
+                Integer id = index.get(xpath);
+                if (id == null) {
+                    StreamingXPath compiled = StreamingXPath.compile(xpath);
+                    id = -1;
+                    if (compiled != null) {
+                        id = expressions.size();
+                        expressions.add(compiled);
+                    }
+                    index.put(xpath, id);
+                }
+                ids[i] = id;
+                streamed |= id >= 0;
+            }
+            if (streamed) {
+                registrations.put(check, ids);
+            }
+        }
+
+        FusedXPathMatcher matcher = new FusedXPathMatcher(expressions);
+        registrations.forEach((check, ids) -> check.setXPathMatcher(matcher, ids));
+        return matcher;
+    }
+
+    public int getExpressionCount() {
+        return expressions.length;
+    }
+
+    /**
+     * Streams a file once and counts the elements selected by each expression.
+     *
+     * @return The number of selected elements per expression id
+     * @throws Exception The parse error of the file, if it is not well-formed
+     */
+    int[] count(ProjectContext context, Path file) throws Exception {
+        int[] counts = new int[expressions.length];
+        count(context, file, counts, null, false);
+        return counts;
+    }
+
+    /**
+     * Streams a file and counts the elements selected by each expression,
+     * stopping at the element that decides the given target expressions: the
+     * first element selected by any of them, or the one by which all of them
+     * have selected an element. The rest of the file is not read.
+     *
+     * @param counts  Receives the number of selected elements per expression id
+     * @param targets Expression ids that decide the outcome, or null to read the
+     *                whole file
+     * @param any     Whether one selected target decides, rather than all
+     * @return Whether the whole file was read, so the counts are complete
+     * @throws Exception The parse error of the file, if it is not well-formed
+     *                   before the deciding element
+     */
+    boolean count(ProjectContext context, Path file, int[] counts, int[] targets, boolean any) throws Exception {
+        if (expressions.length == 0) {
+            return true;
+        }
+        boolean[] target = new boolean[expressions.length];
+        int undecided = 0;
+        if (targets != null) {
+            for (int id : targets) {
+                if (!target[id]) {
+                    target[id] = true;
+                    undecided++;
+                }
+            }
+        }
+        int targetCount = undecided;
+        boolean[] complete = new boolean[1];
+        XmlElementStream.stream(context, file,
+                reader -> complete[0] = count(reader, counts, target, targetCount, any));
+        return complete[0];
+    }
+
+    private boolean count(XMLStreamReader reader, int[] counts, boolean[] target, int undecided, boolean any)
+            throws Exception {
+        int n = expressions.length;
+        // Per open node: the steps matched by the node (first n entries) and by
+        // the node or its ancestors (last n entries) for each expression
+        Deque<long[]> open = new ArrayDeque<>();
+        long[] document = new long[2 * n];
+        Arrays.fill(document, StreamingXPath.documentSteps());
+        open.push(document);
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                long[] parent = open.peek();
+                long[] element = new long[2 * n];
+                boolean decided = false;
+                for (int j = 0; j < n; j++) {
+                    long matched = expressions[j].match(parent[j], parent[n + j], reader);
+                    element[j] = matched;
+                    element[n + j] = parent[n + j] | matched;
+                    if (expressions[j].selects(matched) && counts[j]++ == 0 && target[j]) {
+                        undecided--;
+                        decided |= any || undecided == 0;
+                    }
+                }
+                if (decided) {
+                    return false;
+                }
+                open.push(element);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                open.pop();
+            }
+        }
+        return true;
+    }
+}
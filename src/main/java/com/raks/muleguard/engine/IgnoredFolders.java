@@ -0,0 +1,43 @@
+package com.raks.muleguard.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The folders skipped during validation, as configured under
+ * {@code projectIdentification.ignoredFolders}: exact folder names (e.g.
+ * "target", ".git") and folder name prefixes (e.g. "." for hidden folders).
+ *
+ * The same rule applies to the top-level project folders and, while indexing a
+ * project, to its folders at every depth.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class IgnoredFolders {
+
+    public static final IgnoredFolders NONE = new IgnoredFolders(null, null);
+
+    private final List<String> exactNames;
+    private final List<String> prefixes;
+
+    public IgnoredFolders(List<String> exactNames, List<String> prefixes) {
+        this.exactNames = exactNames != null ? exactNames : Collections.emptyList();
+        this.prefixes = prefixes != null ? prefixes : Collections.emptyList();
+    }
+
+    /**
+     * @param folderName Name of a single folder (not a path)
+     * @return Whether the folder (and everything below it) is ignored
+     */
+    public boolean isIgnored(String folderName) {
+        if (exactNames.contains(folderName)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (folderName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
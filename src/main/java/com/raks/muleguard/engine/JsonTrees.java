@@ -0,0 +1,136 @@
+package com.raks.muleguard.engine;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Path lookups on JSON documents for the JSON checks (see
+ * {@link ProjectContext#getJsonTree}).
+ *
+ * A path is either a top-level field name ({@code minMuleVersion}) or, if it
+ * starts with {@code /}, a JSON pointer ({@code /classLoaderModelLoaderDescriptor/id}).
+ *
+ * Large files (API specifications, {@code exchange.json}) are not read into a
+ * full tree: one streaming pass keeps only the values at the requested paths
+ * and skips everything else, so the result answers the same lookups with a
+ * fraction of the memory. Skipped array elements are kept as nulls, so array
+ * indexes stay valid.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class JsonTrees {
+
+    /** Files larger than this are evaluated by streaming instead of a full tree */
+    public static final long STREAMING_THRESHOLD_BYTES = 1024 * 1024;
+
+    private JsonTrees() {
+    }
+
+    /**
+     * @return The pointer for a path: the pointer itself, or the top-level field
+     */
+    public static JsonPointer toPointer(String path) {
+        return path.startsWith("/") ? JsonPointer.compile(path) : JsonPointer.empty().appendProperty(path);
+    }
+
+    /**
+     * @return The node at a path, or null if there is none
+     */
+    public static JsonNode find(JsonNode root, String path) {
+        if (path == null || !path.startsWith("/")) {
+            return root.get(path);
+        }
+        JsonNode node = root.at(JsonPointer.compile(path));
+        return node.isMissingNode() ? null : node;
+    }
+
+    /**
+     * Reads the values at the given paths in one streaming pass. The returned
+     * tree contains only these values (and their parents).
+     *
+     * @throws IOException If the file cannot be read or is not well-formed JSON
+     *                     up to the end of its root value
+     */
+    public static JsonNode readPruned(Path file, Collection<String> paths) throws IOException {
+        List<JsonPointer> pointers = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            if (path != null) {
+                pointers.add(toPointer(path));
+            }
+        }
+        try (JsonParser parser = SharedParsers.objectMapper().createParser(file.toFile())) {
+            if (parser.nextToken() == null) {
+                return MissingNode.getInstance();
+            }
+            return prune(parser, pointers);
+        }
+    }
+
+    /**
+     * Reads the value at the parser's current token, keeping only what the
+     * pointers (relative to this value) reach.
+     */
+    private static JsonNode prune(JsonParser parser, List<JsonPointer> pointers) throws IOException {
+        for (JsonPointer pointer : pointers) {
+            if (pointer.matches()) {
+                return parser.readValueAsTree();
+            }
+        }
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            ObjectNode object = JsonNodeFactory.instance.objectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                List<JsonPointer> tails = new ArrayList<>();
+                for (JsonPointer pointer : pointers) {
+                    if (pointer.matchesProperty(name)) {
+                        tails.add(pointer.tail());
+                    }
+                }
+                parser.nextToken();
+                if (tails.isEmpty()) {
+                    parser.skipChildren();
+                } else {
+                    object.set(name, prune(parser, tails));
+                }
+            }
+            return object;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            ArrayNode array = JsonNodeFactory.instance.arrayNode();
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                List<JsonPointer> tails = new ArrayList<>();
+                for (JsonPointer pointer : pointers) {
+                    if (pointer.matchesElement(index)) {
+                        tails.add(pointer.tail());
+                    }
+                }
+                if (tails.isEmpty()) {
+                    parser.skipChildren();
+                    array.add(NullNode.getInstance());
+                } else {
+                    array.add(prune(parser, tails));
+                }
+                index++;
+            }
+            return array;
+        }
+        // A scalar where the pointers expect more
+        return parser.readValueAsTree();
+    }
+}
@@ -0,0 +1,80 @@
+package com.raks.muleguard.engine;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import javax.xml.catalog.CatalogFeatures;
+import javax.xml.catalog.CatalogManager;
+import javax.xml.catalog.CatalogResolver;
+import javax.xml.stream.XMLResolver;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+/**
+ * Entity resolver of the offline parsing profile (see {@link SharedParsers}):
+ * external DTDs and entities are never fetched over the network.
+ *
+ * A reference listed in the local XML catalog, configured with the standard
+ * {@code javax.xml.catalog.files} system property, is read from the catalog;
+ * any other reference resolves to empty content, so parsing never waits on a
+ * remote host.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+final class OfflineEntityResolver implements EntityResolver, XMLResolver {
+
+    static final OfflineEntityResolver INSTANCE = new OfflineEntityResolver(createCatalogResolver());
+
+    // Null when no local catalog is configured
+    private final CatalogResolver catalog;
+
+    private OfflineEntityResolver(CatalogResolver catalog) {
+        this.catalog = catalog;
+    }
+
+    @Override
+    public InputSource resolveEntity(String publicId, String systemId) {
+        if (catalog != null) {
+            synchronized (catalog) {
+                InputSource source = catalog.resolveEntity(publicId, systemId);
+                if (source != null) {
+                    return source;
+                }
+            }
+        }
+        InputSource empty = new InputSource(new StringReader(""));
+        empty.setPublicId(publicId);
+        empty.setSystemId(systemId);
+        return empty;
+    }
+
+    @Override
+    public Object resolveEntity(String publicId, String systemId, String baseUri, String namespace) {
+        if (catalog != null) {
+            synchronized (catalog) {
+                Object source = catalog.resolveEntity(publicId, systemId, baseUri, namespace);
+                if (source != null) {
+                    return source;
+                }
+            }
+        }
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    private static CatalogResolver createCatalogResolver() {
+        String files = System.getProperty(CatalogFeatures.Feature.FILES.getPropertyName());
+        if (files == null || files.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            // References missing from the catalog fall through to empty content
+            CatalogFeatures features = CatalogFeatures.builder()
+                    .with(CatalogFeatures.Feature.RESOLVE, "continue")
+                    .build();
+            return CatalogManager.catalogResolver(features);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Cannot load XML catalog '" + files + "': " + e.getMessage());
+            return null;
+        }
+    }
+}
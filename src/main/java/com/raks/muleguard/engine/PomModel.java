@@ -0,0 +1,211 @@
+package com.raks.muleguard.engine;
+
+import org.apache.maven.model.BuildBase;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.ReportPlugin;
+import org.apache.maven.model.Reporting;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A POM read once per project (see {@link ProjectContext#getPomModel}) and
+ * indexed by {@code groupId:artifactId}, so every POM rule is a set of hash
+ * lookups instead of scans over the dependency and plugin lists.
+ *
+ * There are two views:
+ * <ul>
+ * <li>The project's own dependencies ({@code project/dependencies}) and build
+ * plugins ({@code project/build/plugins}), as Maven sees them.</li>
+ * <li>Every declaration in the file: dependencies also in dependency
+ * management, plugin dependencies and profiles; plugins also in plugin
+ * management, reporting and profiles.</li>
+ * </ul>
+ * Plugins without a groupId have Maven's default
+ * {@code org.apache.maven.plugins}.
+ *
+ * The POM is read strictly, like Maven. A well-formed POM with elements that
+ * are not part of the POM model is still read leniently, so that checks which
+ * do not require a valid POM can use it ({@link #getModel()}) while the others
+ * see the strict error ({@link #getStrictModel()}).
+ *
+ * Instances are not modified once read and may be shared between threads;
+ * callers must not modify the returned model either.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class PomModel {
+
+    private final Model model;
+    private final XmlPullParserException strictError;
+    private final Set<String> dependencies = new HashSet<>();
+    private final Set<String> plugins = new HashSet<>();
+    private final Map<String, Integer> declaredDependencies = new HashMap<>();
+    private final Map<String, Integer> declaredPlugins = new HashMap<>();
+
+    private PomModel(Model model, XmlPullParserException strictError) {
+        this.model = model;
+        this.strictError = strictError;
+        // Model getters create missing collections on first call; do that here,
+        // before the model is shared
+        model.getProperties();
+
+        for (Dependency dependency : model.getDependencies()) {
+            dependencies.add(key(dependency.getGroupId(), dependency.getArtifactId()));
+        }
+        if (model.getBuild() != null) {
+            for (Plugin plugin : model.getBuild().getPlugins()) {
+                plugins.add(key(plugin.getGroupId(), plugin.getArtifactId()));
+            }
+        }
+
+        declare(model, model.getBuild());
+        for (Profile profile : model.getProfiles()) {
+            declare(profile, profile.getBuild());
+        }
+    }
+
+    /**
+     * Reads a POM from the bytes of its file, in the encoding the file
+     * declares, as Maven does.
+     *
+     * @throws XmlPullParserException If the content is not well-formed XML
+     */
+    public static PomModel read(byte[] content) throws IOException, XmlPullParserException {
+        MavenXpp3Reader reader = new MavenXpp3Reader();
+        try {
+            return new PomModel(reader.read(new ByteArrayInputStream(content), true), null);
+        } catch (XmlPullParserException strictError) {
+            try {
+                return new PomModel(reader.read(new ByteArrayInputStream(content), false), strictError);
+            } catch (XmlPullParserException e) {
+                throw strictError;
+            }
+        }
+    }
+
+    /**
+     * @return A model derived from this POM, such as its effective model (see
+     *         {@link PomResolver}), with the same strict read error
+     */
+    public PomModel withModel(Model derived) {
+        return new PomModel(derived, strictError);
+    }
+
+    /**
+     * @return The model, read leniently if the POM is not strictly valid
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return The model of a strictly valid POM
+     * @throws XmlPullParserException The strict read error of the POM
+     */
+    public Model getStrictModel() throws XmlPullParserException {
+        if (strictError != null) {
+            throw strictError;
+        }
+        return model;
+    }
+
+    public Parent getParent() {
+        return model.getParent();
+    }
+
+    /**
+     * @return Whether the POM declares any project property
+     */
+    public boolean hasProperties() {
+        return !model.getProperties().isEmpty();
+    }
+
+    /**
+     * @return The value of a project property, or null
+     */
+    public String getProperty(String name) {
+        return model.getProperties().getProperty(name);
+    }
+
+    /**
+     * @return Whether the project itself depends on the artifact
+     */
+    public boolean hasDependency(String groupId, String artifactId) {
+        return dependencies.contains(key(groupId, artifactId));
+    }
+
+    /**
+     * @return Whether the project's build uses the plugin
+     */
+    public boolean hasPlugin(String groupId, String artifactId) {
+        return plugins.contains(key(groupId, artifactId));
+    }
+
+    /**
+     * @return How often the artifact is declared as a dependency anywhere in
+     *         the POM
+     */
+    public int countDeclaredDependencies(String groupId, String artifactId) {
+        return declaredDependencies.getOrDefault(key(groupId, artifactId), 0);
+    }
+
+    /**
+     * @return How often the plugin is declared anywhere in the POM
+     */
+    public int countDeclaredPlugins(String groupId, String artifactId) {
+        return declaredPlugins.getOrDefault(key(groupId, artifactId), 0);
+    }
+
+    private void declare(ModelBase base, BuildBase build) {
+        declareDependencies(base.getDependencies());
+        DependencyManagement management = base.getDependencyManagement();
+        if (management != null) {
+            declareDependencies(management.getDependencies());
+        }
+        if (build != null) {
+            declarePlugins(build.getPlugins());
+            PluginManagement pluginManagement = build.getPluginManagement();
+            if (pluginManagement != null) {
+                declarePlugins(pluginManagement.getPlugins());
+            }
+        }
+        Reporting reporting = base.getReporting();
+        if (reporting != null) {
+            for (ReportPlugin plugin : reporting.getPlugins()) {
+                declaredPlugins.merge(key(plugin.getGroupId(), plugin.getArtifactId()), 1, Integer::sum);
+            }
+        }
+    }
+
+    private void declarePlugins(List<Plugin> pluginList) {
+        for (Plugin plugin : pluginList) {
+            declaredPlugins.merge(key(plugin.getGroupId(), plugin.getArtifactId()), 1, Integer::sum);
+            declareDependencies(plugin.getDependencies());
+        }
+    }
+
+    private void declareDependencies(List<Dependency> dependencyList) {
+        for (Dependency dependency : dependencyList) {
+            declaredDependencies.merge(key(dependency.getGroupId(), dependency.getArtifactId()), 1, Integer::sum);
+        }
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+}
@@ -0,0 +1,425 @@
+package com.raks.muleguard.engine;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.BuildBase;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds effective POM models offline: the parent chain of a POM is resolved
+ * from the workspace or the local Maven repository (never the network), its
+ * properties, dependencies and plugins are inherited, and {@code ${...}}
+ * references are interpolated.
+ *
+ * A parent is looked up, in this order, at the child's {@code relativePath}
+ * (default {@code ../pom.xml}), among the root POMs of the projects being
+ * validated, and in the local repository ({@code maven.repo.local} or
+ * {@code ~/.m2/repository}). Only exact versions are resolved.
+ *
+ * The resolver is shared by all projects of a run, like the
+ * {@link FileContentCache}: every parent is read and resolved once per run,
+ * so a thousand projects with the same parent share one parsed parent. Parents
+ * that cannot be found are reported once and the POM is used without them.
+ *
+ * This is the subset of Maven's model building that POM rules need: profiles,
+ * import scopes and plugin configuration merging are not evaluated.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public class PomResolver {
+
+    private static final Pattern REFERENCE = Pattern.compile("\\$\\{([^}]+)\\}");
+    private static final int MAX_DEPTH = 16;
+
+    private final List<Path> workspaceProjects;
+    private final Path localRepository;
+
+    // Inherited (not interpolated) models of resolved parents, by file
+    private final Map<Path, Model> inherited = new ConcurrentHashMap<>();
+    // Raw models of the parent and workspace POMs, empty if unreadable
+    private final Map<Path, Optional<Model>> rawModels = new ConcurrentHashMap<>();
+    // Parent files by groupId:artifactId:version, empty if not found
+    private final Map<String, Optional<Path>> parentFiles = new ConcurrentHashMap<>();
+    private volatile Map<String, Path> workspaceIndex;
+
+    /**
+     * @param workspaceProjects Project folders whose root POMs can be parents
+     * @param localRepository   Local Maven repository, or null for none
+     */
+    public PomResolver(List<Path> workspaceProjects, Path localRepository) {
+        this.workspaceProjects = new ArrayList<>(workspaceProjects);
+        this.localRepository = localRepository;
+    }
+
+    /**
+     * @return {@code maven.repo.local} if set, otherwise
+     *         {@code ~/.m2/repository}
+     */
+    public static Path defaultLocalRepository() {
+        String configured = System.getProperty("maven.repo.local");
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Paths.get(configured.trim());
+        }
+        return Paths.get(System.getProperty("user.home"), ".m2", "repository");
+    }
+
+    /**
+     * Builds the effective model of a POM: a copy of the model with everything
+     * it inherits from its parents, interpolated.
+     */
+    public Model effectiveModel(Model model, Path pomFile) {
+        Model effective = inherit(model, pomFile, new HashSet<>());
+        interpolate(effective);
+        return effective;
+    }
+
+    private Model inherit(Model model, Path pomFile, Set<Path> visiting) {
+        Model copy = model.clone();
+        Parent parent = model.getParent();
+        if (parent == null || visiting.size() >= MAX_DEPTH) {
+            return copy;
+        }
+        Path parentFile = findParent(parent, pomFile);
+        Model parentModel = parentFile != null && visiting.add(pomFile.toAbsolutePath().normalize())
+                ? inheritedParent(parentFile, visiting)
+                : null;
+        if (parentModel != null) {
+            merge(copy, parentModel);
+        }
+        // Coordinates are inherited even when the parent itself is not available
+        if (copy.getGroupId() == null) {
+            copy.setGroupId(parent.getGroupId());
+        }
+        if (copy.getVersion() == null) {
+            copy.setVersion(parent.getVersion());
+        }
+        return copy;
+    }
+
+    private Model inheritedParent(Path parentFile, Set<Path> visiting) {
+        Model cached = inherited.get(parentFile);
+        if (cached != null) {
+            return cached;
+        }
+        if (visiting.contains(parentFile)) {
+            // Cyclic parents
+            return null;
+        }
+        Model raw = read(parentFile);
+        if (raw == null) {
+            return null;
+        }
+        Model resolved = inherit(raw, parentFile, visiting);
+        // Model getters create missing collections on first call; do that here,
+        // before the parent is shared
+        resolved.getProperties();
+        resolved.getDependencies();
+        if (resolved.getDependencyManagement() != null) {
+            resolved.getDependencyManagement().getDependencies();
+        }
+        if (resolved.getBuild() != null) {
+            resolved.getBuild().getPlugins();
+            if (resolved.getBuild().getPluginManagement() != null) {
+                resolved.getBuild().getPluginManagement().getPlugins();
+            }
+        }
+        Model existing = inherited.putIfAbsent(parentFile, resolved);
+        return existing != null ? existing : resolved;
+    }
+
+    private Path findParent(Parent parent, Path childPom) {
+        String relativePath = parent.getRelativePath();
+        if (relativePath != null && !relativePath.trim().isEmpty()) {
+            Path candidate = childPom.toAbsolutePath().getParent().resolve(relativePath.trim()).normalize();
+            if (Files.isDirectory(candidate)) {
+                candidate = candidate.resolve("pom.xml");
+            }
+            if (Files.isRegularFile(candidate) && matches(candidate, parent)) {
+                return candidate;
+            }
+        }
+
+        String key = parent.getGroupId() + ":" + parent.getArtifactId() + ":" + parent.getVersion();
+        return parentFiles.computeIfAbsent(key, k -> Optional.ofNullable(findParentFile(parent))).orElse(null);
+    }
+
+    private Path findParentFile(Parent parent) {
+        String key = parent.getGroupId() + ":" + parent.getArtifactId() + ":" + parent.getVersion();
+        Path inWorkspace = workspaceIndex().get(key);
+        if (inWorkspace != null) {
+            return inWorkspace;
+        }
+        if (localRepository != null && parent.getGroupId() != null && parent.getArtifactId() != null
+                && parent.getVersion() != null) {
+            Path inRepository = localRepository.resolve(parent.getGroupId().replace('.', '/'))
+                    .resolve(parent.getArtifactId())
+                    .resolve(parent.getVersion())
+                    .resolve(parent.getArtifactId() + "-" + parent.getVersion() + ".pom");
+            if (Files.isRegularFile(inRepository)) {
+                return inRepository.toAbsolutePath().normalize();
+            }
+        }
+        System.err.println("Warning: Parent POM " + key
+                + " not found in the workspace or the local repository; POM rules see the project without it");
+        return null;
+    }
+
+    private boolean matches(Path pomFile, Parent parent) {
+        Model model = read(pomFile);
+        return model != null && parent.getArtifactId() != null && parent.getArtifactId().equals(model.getArtifactId())
+                && parent.getGroupId() != null && parent.getGroupId().equals(groupId(model))
+                && (parent.getVersion() == null || parent.getVersion().equals(version(model)));
+    }
+
+    /**
+     * Indexes the root POMs of the workspace projects by
+     * groupId:artifactId:version the first time a parent is looked up there.
+     */
+    private Map<String, Path> workspaceIndex() {
+        Map<String, Path> index = workspaceIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = workspaceIndex;
+                if (index == null) {
+                    index = new HashMap<>();
+                    for (Path project : workspaceProjects) {
+                        Path pomFile = project.resolve("pom.xml").toAbsolutePath().normalize();
+                        Model model = Files.isRegularFile(pomFile) ? read(pomFile) : null;
+                        if (model != null) {
+                            index.putIfAbsent(groupId(model) + ":" + model.getArtifactId() + ":" + version(model),
+                                    pomFile);
+                        }
+                    }
+                    workspaceIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private Model read(Path pomFile) {
+        return rawModels.computeIfAbsent(pomFile, file -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return Optional.of(new MavenXpp3Reader().read(in, false));
+            } catch (Exception e) {
+                System.err.println("Warning: Cannot read POM " + file + ": " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    private static String groupId(Model model) {
+        return model.getGroupId() != null || model.getParent() == null ? model.getGroupId()
+                : model.getParent().getGroupId();
+    }
+
+    private static String version(Model model) {
+        return model.getVersion() != null || model.getParent() == null ? model.getVersion()
+                : model.getParent().getVersion();
+    }
+
+    /**
+     * Merges what a child inherits from its (inherited) parent into the child.
+     * Values declared by the child win.
+     */
+    private static void merge(Model child, Model parent) {
+        Properties properties = new Properties();
+        properties.putAll(parent.getProperties());
+        properties.putAll(child.getProperties());
+        child.setProperties(properties);
+
+        child.setDependencies(mergeDependencies(parent.getDependencies(), child.getDependencies()));
+        if (parent.getDependencyManagement() != null) {
+            if (child.getDependencyManagement() == null) {
+                child.setDependencyManagement(new DependencyManagement());
+            }
+            child.getDependencyManagement().setDependencies(mergeDependencies(
+                    parent.getDependencyManagement().getDependencies(),
+                    child.getDependencyManagement().getDependencies()));
+        }
+
+        Build parentBuild = parent.getBuild();
+        if (parentBuild != null) {
+            if (child.getBuild() == null) {
+                child.setBuild(new Build());
+            }
+            mergeBuild(child.getBuild(), parentBuild);
+        }
+    }
+
+    private static void mergeBuild(BuildBase child, BuildBase parent) {
+        List<Plugin> inheritedPlugins = new ArrayList<>();
+        for (Plugin plugin : parent.getPlugins()) {
+            if (plugin.isInherited()) {
+                inheritedPlugins.add(plugin);
+            }
+        }
+        child.setPlugins(mergePlugins(inheritedPlugins, child.getPlugins()));
+
+        if (parent.getPluginManagement() != null) {
+            if (child.getPluginManagement() == null) {
+                child.setPluginManagement(new PluginManagement());
+            }
+            child.getPluginManagement().setPlugins(mergePlugins(parent.getPluginManagement().getPlugins(),
+                    child.getPluginManagement().getPlugins()));
+        }
+    }
+
+    private static List<Dependency> mergeDependencies(List<Dependency> parent, List<Dependency> child) {
+        return mergeByKey(parent, child, Dependency::getManagementKey);
+    }
+
+    private static List<Plugin> mergePlugins(List<Plugin> parent, List<Plugin> child) {
+        List<Plugin> merged = mergeByKey(parent, child, Plugin::getKey);
+        // A child plugin without a version keeps the inherited one
+        Map<String, String> parentVersions = new HashMap<>();
+        for (Plugin plugin : parent) {
+            parentVersions.put(plugin.getKey(), plugin.getVersion());
+        }
+        for (int i = 0; i < merged.size(); i++) {
+            Plugin plugin = merged.get(i);
+            if (plugin.getVersion() == null && parentVersions.get(plugin.getKey()) != null) {
+                Plugin copy = plugin.clone();
+                copy.setVersion(parentVersions.get(plugin.getKey()));
+                merged.set(i, copy);
+            }
+        }
+        return merged;
+    }
+
+    private static <T> List<T> mergeByKey(List<T> parent, List<T> child, Function<T, String> key) {
+        Map<String, T> merged = new LinkedHashMap<>();
+        for (T item : parent) {
+            merged.put(key.apply(item), item);
+        }
+        for (T item : child) {
+            merged.put(key.apply(item), item);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Replaces {@code ${...}} references to properties and to the project's
+     * coordinates, and fills in managed dependency versions. References that
+     * cannot be resolved are kept as written.
+     */
+    private static void interpolate(Model model) {
+        Map<String, String> values = new HashMap<>();
+        model.getProperties().forEach((name, value) -> values.put(String.valueOf(name), String.valueOf(value)));
+        putCoordinates(values, "project.", model.getGroupId(), model.getArtifactId(), model.getVersion());
+        putCoordinates(values, "pom.", model.getGroupId(), model.getArtifactId(), model.getVersion());
+        if (model.getParent() != null) {
+            Parent parent = model.getParent();
+            putCoordinates(values, "project.parent.", parent.getGroupId(), parent.getArtifactId(),
+                    parent.getVersion());
+        }
+
+        Properties properties = new Properties();
+        model.getProperties().forEach((name, value) -> properties.put(name,
+                resolve(String.valueOf(value), values, 0)));
+        model.setProperties(properties);
+
+        Map<String, String> managedVersions = new HashMap<>();
+        if (model.getDependencyManagement() != null) {
+            List<Dependency> managed = interpolateDependencies(model.getDependencyManagement().getDependencies(),
+                    values);
+            model.getDependencyManagement().setDependencies(managed);
+            for (Dependency dependency : managed) {
+                managedVersions.put(dependency.getManagementKey(), dependency.getVersion());
+            }
+        }
+        List<Dependency> dependencies = interpolateDependencies(model.getDependencies(), values);
+        for (Dependency dependency : dependencies) {
+            if (dependency.getVersion() == null) {
+                dependency.setVersion(managedVersions.get(dependency.getManagementKey()));
+            }
+        }
+        model.setDependencies(dependencies);
+
+        if (model.getBuild() != null) {
+            model.getBuild().setPlugins(interpolatePlugins(model.getBuild().getPlugins(), values));
+            if (model.getBuild().getPluginManagement() != null) {
+                PluginManagement management = model.getBuild().getPluginManagement();
+                management.setPlugins(interpolatePlugins(management.getPlugins(), values));
+            }
+        }
+    }
+
+    private static void putCoordinates(Map<String, String> values, String prefix, String groupId,
+            String artifactId, String version) {
+        if (groupId != null) {
+            values.put(prefix + "groupId", groupId);
+        }
+        if (artifactId != null) {
+            values.put(prefix + "artifactId", artifactId);
+        }
+        if (version != null) {
+            values.put(prefix + "version", version);
+        }
+    }
+
+    private static List<Dependency> interpolateDependencies(List<Dependency> dependencies,
+            Map<String, String> values) {
+        List<Dependency> result = new ArrayList<>(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            // Inherited entries are shared with the cached parent, so they are copied
+            Dependency copy = dependency.clone();
+            copy.setGroupId(resolve(copy.getGroupId(), values, 0));
+            copy.setArtifactId(resolve(copy.getArtifactId(), values, 0));
+            copy.setVersion(resolve(copy.getVersion(), values, 0));
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private static List<Plugin> interpolatePlugins(List<Plugin> plugins, Map<String, String> values) {
+        List<Plugin> result = new ArrayList<>(plugins.size());
+        for (Plugin plugin : plugins) {
+            Plugin copy = plugin.clone();
+            copy.setGroupId(resolve(copy.getGroupId(), values, 0));
+            copy.setArtifactId(resolve(copy.getArtifactId(), values, 0));
+            copy.setVersion(resolve(copy.getVersion(), values, 0));
+            copy.setDependencies(interpolateDependencies(copy.getDependencies(), values));
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private static String resolve(String value, Map<String, String> values, int depth) {
+        if (value == null || depth > MAX_DEPTH || value.indexOf("${") < 0) {
+            return value;
+        }
+        Matcher matcher = REFERENCE.matcher(value);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String replacement = values.get(matcher.group(1));
+            replacement = replacement != null ? resolve(replacement, values, depth + 1) : matcher.group();
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+}
@@ -0,0 +1,371 @@
+package com.raks.muleguard.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.raks.muleguard.PropertyResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-project state shared by all checks of a single validation run: the
+ * project root, the file index built once for that project, the run-scoped
+ * file content cache, XML parse statistics and POM resolver, the project's
+ * parsed XML documents, JSON trees, (effective) POM models, property file
+ * indexes and property resolver and its fused token scan and XPath results.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public class ProjectContext implements AutoCloseable {
+
+    private final Path projectRoot;
+    private final ProjectFileIndex fileIndex;
+    private final FileContentCache contentCache;
+    private final XmlParseStatistics parseStatistics;
+    private final PomResolver pomResolver;
+    private final XmlDocumentCache xmlDocuments;
+    private final Map<Path, CompletableFuture<PomModel>> pomModels = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<PomModel>> effectivePomModels = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<PropertyFileIndex>> propertyIndexes = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<JsonNode>> jsonTrees = new ConcurrentHashMap<>();
+    private volatile PropertyResolver propertyResolver;
+    private final Map<FusedTokenScanner, Map<Path, TokenScan>> tokenScans = new ConcurrentHashMap<>();
+    private final Map<FusedXPathMatcher, Map<Path, int[]>> xpathMatches = new ConcurrentHashMap<>();
+
+    public ProjectContext(Path projectRoot, ProjectFileIndex fileIndex, FileContentCache contentCache) {
+        this(projectRoot, fileIndex, contentCache, new XmlParseStatistics());
+    }
+
+    public ProjectContext(Path projectRoot, ProjectFileIndex fileIndex, FileContentCache contentCache,
+            XmlParseStatistics parseStatistics) {
+        this(projectRoot, fileIndex, contentCache, parseStatistics,
+                new PomResolver(Collections.emptyList(), PomResolver.defaultLocalRepository()));
+    }
+
+    public ProjectContext(Path projectRoot, ProjectFileIndex fileIndex, FileContentCache contentCache,
+            XmlParseStatistics parseStatistics, PomResolver pomResolver) {
+        this.projectRoot = projectRoot;
+        this.fileIndex = fileIndex;
+        this.contentCache = contentCache;
+        this.parseStatistics = parseStatistics;
+        this.pomResolver = pomResolver;
+        this.xmlDocuments = new XmlDocumentCache(parseStatistics);
+    }
+
+    /**
+     * Builds the context for a project, indexing its files except those in
+     * ignored folders.
+     */
+    public static ProjectContext create(Path projectRoot, FileContentCache contentCache,
+            XmlParseStatistics parseStatistics, PomResolver pomResolver, IgnoredFolders ignoredFolders) {
+        try {
+            return new ProjectContext(projectRoot, ProjectFileIndex.build(projectRoot, ignoredFolders),
+                    contentCache, parseStatistics, pomResolver);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error indexing project files: " + projectRoot, e);
+        }
+    }
+
+    public Path getProjectRoot() {
+        return projectRoot;
+    }
+
+    public ProjectFileIndex getFileIndex() {
+        return fileIndex;
+    }
+
+    public FileContentCache getContentCache() {
+        return contentCache;
+    }
+
+    public XmlParseStatistics getParseStatistics() {
+        return parseStatistics;
+    }
+
+    public PomResolver getPomResolver() {
+        return pomResolver;
+    }
+
+    public XmlDocumentCache getXmlDocuments() {
+        return xmlDocuments;
+    }
+
+    /**
+     * Reads a project file as UTF-8 through the content cache. Behaves like
+     * {@code Files.readString}, including failing on malformed input.
+     */
+    public String readString(Path file) throws IOException {
+        ProjectFileIndex.FileEntry entry = fileIndex.find(file);
+        return entry != null
+                ? contentCache.readString(file, entry.getLastModified())
+                : contentCache.readString(file);
+    }
+
+    /**
+     * Reads a project file as UTF-8 through the content cache, replacing
+     * malformed input instead of failing.
+     */
+    public String readStringLenient(Path file) throws IOException {
+        ProjectFileIndex.FileEntry entry = fileIndex.find(file);
+        return entry != null
+                ? contentCache.readStringLenient(file, entry.getLastModified())
+                : contentCache.readStringLenient(file);
+    }
+
+    /**
+     * Finds which of the check's literal tokens (see
+     * {@link CompiledCheck#setLiteralTokens(List, boolean)}) a file contains.
+     * Each file is read and scanned at most once per project for the tokens of
+     * all token checks of the rule plan; the other checks reuse the result,
+     * even if the file is no longer in the content cache.
+     *
+     * @param lenient Whether to read the file like {@link #readStringLenient} or
+     *                like {@link #readString} (failing on malformed input)
+     * @return Indices into the check's literal tokens
+     */
+    public BitSet findLiteralTokens(CompiledCheck check, Path file, boolean lenient) throws IOException {
+        FusedTokenScanner scanner = check.getTokenScanner();
+        if (scanner == null) {
+            String content = lenient ? readStringLenient(file) : readString(file);
+            return check.getTokenMatcher(check.getLiteralTokens(), check.isLiteralTokensIgnoreCase())
+                    .findAll(content);
+        }
+
+        Map<Path, TokenScan> scans = tokenScans.computeIfAbsent(scanner, s -> new ConcurrentHashMap<>());
+        TokenScan scan = scans.get(file);
+        if (scan == null) {
+            // Scanned leniently, keeping whether a strict read would have failed
+            String content;
+            int malformedLength = 0;
+            try {
+                content = readString(file);
+            } catch (MalformedInputException e) {
+                content = readStringLenient(file);
+                malformedLength = e.getInputLength();
+            }
+            scan = new TokenScan(scanner.scan(content), malformedLength);
+            scans.putIfAbsent(file, scan);
+        }
+        if (!lenient && scan.malformedLength > 0) {
+            throw new MalformedInputException(scan.malformedLength);
+        }
+        return check.toLiteralTokenIndices(scan.foundIds);
+    }
+
+    /**
+     * Returns the POM model of a file (see {@link PomModel}), reading it on
+     * first access. The file's bytes are read in the encoding it declares.
+     * Read errors are kept as well and reported again to every check that asks
+     * for the same file.
+     *
+     * @throws Exception The read error of the file, if it is not a well-formed
+     *                   POM
+     */
+    public PomModel getPomModel(Path pomFile) throws Exception {
+        return load(pomModels, pomFile, () -> PomModel.read(Files.readAllBytes(pomFile)));
+    }
+
+    /**
+     * Returns the effective POM model of a file: the POM with what it inherits
+     * from its parents, interpolated (see {@link PomResolver}). Built once per
+     * project from {@link #getPomModel}; parents are shared by the whole run.
+     *
+     * @throws Exception The read error of the file, if it is not a well-formed
+     *                   POM
+     */
+    public PomModel getEffectivePomModel(Path pomFile) throws Exception {
+        return load(effectivePomModels, pomFile, () -> {
+            PomModel pom = getPomModel(pomFile);
+            return pom.withModel(pomResolver.effectiveModel(pom.getModel(), pomFile.toAbsolutePath()));
+        });
+    }
+
+    /**
+     * Returns the property index of an environment file (see
+     * {@link PropertyFileIndex}), reading and parsing it on first access. Read
+     * errors are kept as well and reported again to every check that asks for
+     * the same file.
+     *
+     * @throws IOException The read error of the file, including malformed
+     *                     UTF-8 as with {@link #readString}
+     */
+    public PropertyFileIndex getPropertyIndex(Path file) throws IOException {
+        try {
+            return load(propertyIndexes, file, () -> PropertyFileIndex.parse(readString(file)));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns a JSON document for looking up the given paths (see
+     * {@link JsonTrees}). Files up to {@link JsonTrees#STREAMING_THRESHOLD_BYTES}
+     * are parsed once per project into a full tree shared by all JSON checks;
+     * larger files are streamed and only the values at the paths are kept.
+     * Both read the file's bytes, so Jackson detects its encoding and skips a
+     * byte order mark. Callers must not modify the returned tree.
+     *
+     * @throws Exception The read or parse error of the file
+     */
+    public JsonNode getJsonTree(Path file, Collection<String> paths) throws Exception {
+        ProjectFileIndex.FileEntry entry = fileIndex.find(file);
+        long size = entry != null ? entry.getSize() : Files.size(file);
+        if (size > JsonTrees.STREAMING_THRESHOLD_BYTES) {
+            return JsonTrees.readPruned(file, paths);
+        }
+        return load(jsonTrees, file, () -> SharedParsers.objectMapper().readTree(file.toFile()));
+    }
+
+    /**
+     * Returns the project's property resolver, loading the property files of
+     * {@code src/main/resources} on first access. Shared by all checks that
+     * resolve placeholders.
+     */
+    public PropertyResolver getPropertyResolver() {
+        PropertyResolver resolver = propertyResolver;
+        if (resolver == null) {
+            synchronized (this) {
+                resolver = propertyResolver;
+                if (resolver == null) {
+                    resolver = new PropertyResolver(projectRoot);
+                    propertyResolver = resolver;
+                }
+            }
+        }
+        return resolver;
+    }
+
+    /**
+     * Loads a per-file value once per project; concurrent callers for the same
+     * file wait for the first one.
+     */
+    private <T> T load(Map<Path, CompletableFuture<T>> values, Path file, Callable<T> loader) throws Exception {
+        Path key = file.toAbsolutePath().normalize();
+        CompletableFuture<T> value = values.get(key);
+        if (value == null) {
+            CompletableFuture<T> created = new CompletableFuture<>();
+            value = values.putIfAbsent(key, created);
+            if (value == null) {
+                value = created;
+                try {
+                    created.complete(loader.call());
+                } catch (Exception e) {
+                    created.completeExceptionally(e);
+                }
+            }
+        }
+
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Counts the elements a file matches for each of the check's declared XPaths
+     * (see {@link CompiledCheck#setStreamingXPaths(List)}). Each file is
+     * streamed at most once per project for the XPaths of all XPath checks of
+     * the rule plan; only the entries for which
+     * {@link CompiledCheck#isStreamingXPath(int)} holds are meaningful.
+     *
+     * @return Number of selected elements per declared XPath, or null if none of
+     *         the check's XPaths is streamed
+     * @throws Exception The parse error of the file, if it is not well-formed
+     */
+    public int[] findXPathMatches(CompiledCheck check, Path file) throws Exception {
+        FusedXPathMatcher matcher = check.getXPathMatcher();
+        if (matcher == null) {
+            return null;
+        }
+
+        Map<Path, int[]> matches = xpathMatches.computeIfAbsent(matcher, m -> new ConcurrentHashMap<>());
+        int[] counts = matches.get(file);
+        if (counts == null) {
+            counts = matcher.count(this, file);
+            matches.putIfAbsent(file, counts);
+        }
+        return check.toXPathCounts(counts);
+    }
+
+    /**
+     * Existence-only variant of {@link #findXPathMatches(CompiledCheck, Path)}
+     * for checks that only test whether an XPath matches at all. If the file
+     * has not been counted yet, it is streamed only up to the element that
+     * decides the given XPaths: the first match of any of them, or the match
+     * that completes all of them. A file that is read to its end is remembered
+     * for the other checks as usual.
+     *
+     * @param indexes Declared XPaths that decide the caller's outcome
+     * @param any     Whether one match among them decides, rather than all
+     * @return As {@link #findXPathMatches(CompiledCheck, Path)}, except that a
+     *         count may stop at the first match, so only {@code > 0} is
+     *         meaningful
+     * @throws Exception The parse error of the file, if it is not well-formed
+     *                   before the deciding element
+     */
+    public int[] findXPathMatches(CompiledCheck check, Path file, BitSet indexes, boolean any) throws Exception {
+        FusedXPathMatcher matcher = check.getXPathMatcher();
+        if (matcher == null) {
+            return null;
+        }
+
+        Map<Path, int[]> matches = xpathMatches.computeIfAbsent(matcher, m -> new ConcurrentHashMap<>());
+        int[] counts = matches.get(file);
+        if (counts == null) {
+            int[] targets = check.toXPathIds(indexes);
+            if (targets.length == 0) {
+                // Nothing to decide by streaming
+                return check.toXPathCounts(new int[matcher.getExpressionCount()]);
+            }
+            counts = new int[matcher.getExpressionCount()];
+            if (matcher.count(this, file, counts, targets, any)) {
+                matches.putIfAbsent(file, counts);
+            }
+        }
+        return check.toXPathCounts(counts);
+    }
+
+    /**
+     * Releases the per-project caches once all checks of the project are done.
+     */
+    @Override
+    public void close() {
+        xmlDocuments.clear();
+        pomModels.clear();
+        effectivePomModels.clear();
+        propertyIndexes.clear();
+        jsonTrees.clear();
+        propertyResolver = null;
+        tokenScans.clear();
+        xpathMatches.clear();
+    }
+
+    private static final class TokenScan {
+        final BitSet foundIds;
+        /** Input length of the first malformed sequence, 0 if the file is valid UTF-8 */
+        final int malformedLength;
+
+        TokenScan(BitSet foundIds, int malformedLength) {
+            this.foundIds = foundIds;
+            this.malformedLength = malformedLength;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.raks.muleguard.engine;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of all regular files in a project, built with a single
+ * directory traversal. Ignored folders (build output, VCS metadata, ...) are
+ * pruned during the traversal and never descended into.
+ *
+ * Checks query this index (by glob, extension, file name or environment base
+ * name) instead of walking the project tree themselves. Files are always
+ * returned in traversal order, i.e. the same order {@code Files.walk} would
+ * produce.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public class ProjectFileIndex {
+
+    private final Path root;
+    private final List<FileEntry> files;
+    private final Map<String, FileEntry> byRelativePath = new HashMap<>();
+    private final Map<String, List<FileEntry>> byFileName = new HashMap<>();
+    private final Map<String, List<FileEntry>> byBaseName = new HashMap<>();
+    private final Map<String, List<FileEntry>> byExtension = new HashMap<>();
+
+    private ProjectFileIndex(Path root, List<FileEntry> files) {
+        this.root = root;
+        this.files = Collections.unmodifiableList(files);
+
+        for (FileEntry entry : files) {
+            byRelativePath.put(entry.relativePath, entry);
+            byFileName.computeIfAbsent(entry.fileName, k -> new ArrayList<>()).add(entry);
+            byBaseName.computeIfAbsent(entry.baseName, k -> new ArrayList<>()).add(entry);
+            byExtension.computeIfAbsent(entry.extension.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    /**
+     * Walks the whole project tree once, see
+     * {@link #build(Path, IgnoredFolders)}.
+     */
+    public static ProjectFileIndex build(Path root) throws IOException {
+        return build(root, IgnoredFolders.NONE);
+    }
+
+    /**
+     * Walks the project tree once and records every regular file with its size
+     * and modification time, using the attributes supplied by the traversal.
+     * Ignored folders below the root are skipped at any depth. Unreadable
+     * entries are skipped.
+     */
+    public static ProjectFileIndex build(Path root, IgnoredFolders ignoredFolders) throws IOException {
+        List<FileEntry> files = new ArrayList<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(root) && ignoredFolders.isIgnored(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(file))) {
+                    files.add(new FileEntry(files.size(), root, file, attrs));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return new ProjectFileIndex(root, files);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return All indexed files in traversal order
+     */
+    public List<FileEntry> getFiles() {
+        return files;
+    }
+
+    /**
+     * Looks up a file by its path relative to the project root (using '/' as
+     * separator), e.g. "pom.xml".
+     */
+    public FileEntry find(String relativePath) {
+        return byRelativePath.get(relativePath);
+    }
+
+    /**
+     * Looks up a file of this project by its path, or null if it is not indexed.
+     */
+    public FileEntry find(Path path) {
+        if (!path.startsWith(root)) {
+            return null;
+        }
+        return find(root.relativize(path).toString().replace("\\", "/"));
+    }
+
+    /**
+     * @return Paths of all files with the given exact file name, at any depth
+     */
+    public List<Path> withFileName(String fileName) {
+        return toPaths(byFileName.getOrDefault(fileName, Collections.emptyList()));
+    }
+
+    /**
+     * @return Paths of all files with the given extension (e.g. ".xml"),
+     *         compared case-insensitively
+     */
+    public List<Path> withExtension(String extension) {
+        return toPaths(byExtension.getOrDefault(extension.toLowerCase(Locale.ROOT), Collections.emptyList()));
+    }
+
+    /**
+     * Finds environment files such as "ITE.properties" or "TDV.policy": files
+     * whose base name (file name without its last extension) is one of the
+     * environments and whose extension is one of the given extensions.
+     */
+    public List<Path> environmentFiles(List<String> environments, List<String> fileExtensions) {
+        Set<FileEntry> matches = new LinkedHashSet<>();
+        for (String environment : environments) {
+            for (FileEntry entry : byBaseName.getOrDefault(environment, Collections.emptyList())) {
+                if (fileExtensions.contains(entry.extension)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        List<FileEntry> ordered = new ArrayList<>(matches);
+        ordered.sort(Comparator.comparingInt(entry -> entry.order));
+        return toPaths(ordered);
+    }
+
+    /**
+     * Finds files whose project-relative path matches any of the compiled glob
+     * patterns.
+     *
+     * @see #globToRegex(String)
+     * @see CompiledCheck#getGlobs(List)
+     */
+    public List<Path> matching(List<Pattern> patterns) {
+        return matching(patterns, Collections.emptyList());
+    }
+
+    /**
+     * Finds files whose project-relative path matches any of the include
+     * patterns and none of the exclude patterns.
+     */
+    public List<Path> matching(List<Pattern> includes, List<Pattern> excludes) {
+        return filter(entry -> matchesAny(entry.relativePath, includes) && !matchesAny(entry.relativePath, excludes));
+    }
+
+    /**
+     * @return Paths of all files accepted by the filter, in traversal order
+     */
+    public List<Path> filter(Predicate<FileEntry> filter) {
+        List<Path> result = new ArrayList<>();
+        for (FileEntry entry : files) {
+            if (filter.test(entry)) {
+                result.add(entry.path);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts the glob syntax used by the rule "filePatterns" parameters into a
+     * regex matched against the project-relative path.
+     */
+    public static String globToRegex(String pattern) {
+        return pattern
+                .replace(".", "\\.")
+                .replace("**/", ".*")
+                .replace("**", ".*")
+                .replace("*", "[^/]*")
+                .replace("?", ".");
+    }
+
+    private static boolean matchesAny(String relativePath, List<Pattern> patterns) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(relativePath).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Path> toPaths(List<FileEntry> entries) {
+        List<Path> paths = new ArrayList<>(entries.size());
+        for (FileEntry entry : entries) {
+            paths.add(entry.path);
+        }
+        return paths;
+    }
+
+    /**
+     * A single indexed file.
+     */
+    public static class FileEntry {
+        private final int order;
+        private final Path path;
+        private final String relativePath;
+        private final String fileName;
+        private final String baseName;
+        private final String extension;
+        private final long size;
+        private final long lastModified;
+
+        FileEntry(int order, Path root, Path path, BasicFileAttributes attrs) {
+            this.order = order;
+            this.path = path;
+            this.relativePath = root.relativize(path).toString().replace("\\", "/");
+            this.fileName = path.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            this.baseName = dot >= 0 ? fileName.substring(0, dot) : fileName;
+            this.extension = dot >= 0 ? fileName.substring(dot) : "";
+            this.size = attrs.size();
+            this.lastModified = attrs.lastModifiedTime().toMillis();
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /** Path relative to the project root, always using '/' as separator */
+        public String getRelativePath() {
+            return relativePath;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /** File name without its last extension ("ITE" for "ITE.properties") */
+        public String getBaseName() {
+            return baseName;
+        }
+
+        /** Last extension including the dot (".properties"), or "" if none */
+        public String getExtension() {
+            return extension;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
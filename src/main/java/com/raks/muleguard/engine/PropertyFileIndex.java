@@ -0,0 +1,362 @@
+package com.raks.muleguard.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed view of an environment properties or policy file, built once per
+ * file (see {@link ProjectContext#getPropertyIndex}) and shared by all config
+ * checks.
+ *
+ * The file is scanned once for its property lines: trimmed, without empty
+ * lines and {@code #}/{@code !} comments. For each delimiter a check asks for,
+ * the lines are split into name-value entries, and names are indexed (exactly
+ * or case-folded, on first lookup) so a property lookup is a hash lookup
+ * instead of a scan over all lines.
+ *
+ * Lines, names and values are offsets into the file content, which is shared
+ * with the {@link FileContentCache}; they are returned as views, so a large
+ * file is never split or copied line by line. Only indexed names are copied.
+ *
+ * A line is an entry if the delimiter occurs after its first character; the
+ * name is the trimmed text before the first delimiter and the value the
+ * trimmed text after the delimiter's first character, as the property checks
+ * have always read it.
+ *
+ * Instances are immutable apart from the memoized views and may be shared
+ * between threads.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class PropertyFileIndex {
+
+    private final String content;
+    // Trimmed bounds and 1-based number of each property line
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final int[] lineNumbers;
+    private final Map<String, Entries> entries = new ConcurrentHashMap<>();
+    private volatile Properties properties;
+
+    private PropertyFileIndex(String content, int[] lineStarts, int[] lineEnds, int[] lineNumbers) {
+        this.content = content;
+        this.lineStarts = lineStarts;
+        this.lineEnds = lineEnds;
+        this.lineNumbers = lineNumbers;
+    }
+
+    /**
+     * Scans the content of a file for its property lines.
+     */
+    public static PropertyFileIndex parse(String content) {
+        int capacity = 16;
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int[] numbers = new int[capacity];
+        int count = 0;
+        int number = 0;
+        int position = 0;
+        int length = content.length();
+        while (position < length) {
+            int lineEnd = content.indexOf('\n', position);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            number++;
+            // Trimmed like String.trim()
+            int start = position;
+            int end = lineEnd;
+            while (start < end && content.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && content.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (start < end && content.charAt(start) != '#' && content.charAt(start) != '!') {
+                if (count == capacity) {
+                    capacity *= 2;
+                    starts = Arrays.copyOf(starts, capacity);
+                    ends = Arrays.copyOf(ends, capacity);
+                    numbers = Arrays.copyOf(numbers, capacity);
+                }
+                starts[count] = start;
+                ends[count] = end;
+                numbers[count] = number;
+                count++;
+            }
+            position = lineEnd + 1;
+        }
+        return new PropertyFileIndex(content, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count),
+                Arrays.copyOf(numbers, count));
+    }
+
+    /**
+     * @return The file content the index was built from
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * @return The number of property lines (not counting empty lines and
+     *         comments)
+     */
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * @return A view of the trimmed text of a property line
+     */
+    public CharSequence getLine(int line) {
+        return new Slice(content, lineStarts[line], lineEnds[line]);
+    }
+
+    /**
+     * @return The 1-based number of a property line in the file
+     */
+    public int getLineNumber(int line) {
+        return lineNumbers[line];
+    }
+
+    /**
+     * @return The name-value entries of the file for a delimiter, built on
+     *         first access
+     */
+    public Entries getEntries(String delimiter) {
+        return entries.computeIfAbsent(delimiter, this::split);
+    }
+
+    private Entries split(String delimiter) {
+        int count = 0;
+        int[] entryLines = new int[lineStarts.length];
+        int[] nameEnds = new int[lineStarts.length];
+        int[] valueStarts = new int[lineStarts.length];
+        for (int line = 0; line < lineStarts.length; line++) {
+            int start = lineStarts[line];
+            int end = lineEnds[line];
+            int delimiterIndex = indexOf(delimiter, start, end);
+            if (delimiterIndex > start) {
+                int nameEnd = delimiterIndex;
+                while (nameEnd > start && content.charAt(nameEnd - 1) <= ' ') {
+                    nameEnd--;
+                }
+                int valueStart = Math.min(delimiterIndex + 1, end);
+                while (valueStart < end && content.charAt(valueStart) <= ' ') {
+                    valueStart++;
+                }
+                entryLines[count] = line;
+                nameEnds[count] = nameEnd;
+                valueStarts[count] = valueStart;
+                count++;
+            }
+        }
+        return new Entries(Arrays.copyOf(entryLines, count), Arrays.copyOf(nameEnds, count),
+                Arrays.copyOf(valueStarts, count));
+    }
+
+    /**
+     * Finds a delimiter within a line, like {@link String#indexOf(String)} on
+     * the trimmed line.
+     */
+    private int indexOf(String delimiter, int start, int end) {
+        int last = end - delimiter.length();
+        for (int index = start; index <= last; index++) {
+            if (content.startsWith(delimiter, index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The file loaded with {@link Properties#load(java.io.InputStream)}
+     *         (ISO-8859-1, with escapes and continuation lines), built on first
+     *         access. Callers must not modify it.
+     */
+    public Properties getProperties() throws IOException {
+        Properties loaded = properties;
+        if (loaded == null) {
+            loaded = new Properties();
+            // The content was decoded from valid UTF-8, so this restores the file's bytes
+            loaded.load(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+            properties = loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * The entries of a file for one delimiter, numbered in file order. Names
+     * are indexed on the first lookup of each kind (exact or case-insensitive).
+     */
+    public final class Entries {
+        private static final int NONE = -1;
+
+        private final int[] entryLines;
+        private final int[] nameEnds;
+        private final int[] valueStarts;
+        private volatile NameIndex exactNames;
+        private volatile NameIndex foldedNames;
+
+        private Entries(int[] entryLines, int[] nameEnds, int[] valueStarts) {
+            this.entryLines = entryLines;
+            this.nameEnds = nameEnds;
+            this.valueStarts = valueStarts;
+        }
+
+        public int size() {
+            return entryLines.length;
+        }
+
+        /**
+         * @return A view of the name of an entry
+         */
+        public CharSequence getName(int entry) {
+            return new Slice(content, lineStarts[entryLines[entry]], nameEnds[entry]);
+        }
+
+        /**
+         * @return A view of the value of an entry
+         */
+        public CharSequence getValue(int entry) {
+            return new Slice(content, valueStarts[entry], lineEnds[entryLines[entry]]);
+        }
+
+        /**
+         * @return The 1-based number of the line declaring an entry
+         */
+        public int getLineNumber(int entry) {
+            return lineNumbers[entryLines[entry]];
+        }
+
+        /**
+         * @return The entries with a name, in file order; compared like
+         *         {@link String#equalsIgnoreCase} unless case-sensitive
+         */
+        public int[] find(String name, boolean caseSensitive) {
+            if (name == null) {
+                return new int[0];
+            }
+            return caseSensitive ? exactNames().find(name) : foldedNames().find(foldCase(name));
+        }
+
+        private NameIndex exactNames() {
+            NameIndex index = exactNames;
+            if (index == null) {
+                index = new NameIndex(this, false);
+                exactNames = index;
+            }
+            return index;
+        }
+
+        private NameIndex foldedNames() {
+            NameIndex index = foldedNames;
+            if (index == null) {
+                index = new NameIndex(this, true);
+                foldedNames = index;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Entries by name: the first entry of each name, and each entry's next
+     * entry with the same name.
+     */
+    private static final class NameIndex {
+        private final Map<String, Integer> first = new HashMap<>();
+        private final int[] next;
+
+        NameIndex(Entries entries, boolean folded) {
+            next = new int[entries.size()];
+            Arrays.fill(next, Entries.NONE);
+            int[] last = new int[entries.size()];
+            for (int entry = 0; entry < entries.size(); entry++) {
+                String name = entries.getName(entry).toString();
+                Integer head = first.putIfAbsent(folded ? foldCase(name) : name, entry);
+                if (head != null) {
+                    next[last[head]] = entry;
+                    last[head] = entry;
+                } else {
+                    last[entry] = entry;
+                }
+            }
+        }
+
+        int[] find(String key) {
+            Integer head = first.get(key);
+            if (head == null) {
+                return new int[0];
+            }
+            int count = 0;
+            for (int entry = head; entry != Entries.NONE; entry = next[entry]) {
+                count++;
+            }
+            int[] found = new int[count];
+            int i = 0;
+            for (int entry = head; entry != Entries.NONE; entry = next[entry]) {
+                found[i++] = entry;
+            }
+            return found;
+        }
+    }
+
+    /**
+     * A range of the file content, without copying it.
+     */
+    private static final class Slice implements CharSequence {
+        private final String content;
+        private final int start;
+        private final int end;
+
+        Slice(String content, int start, int end) {
+            this.content = content;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            return content.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new StringIndexOutOfBoundsException("begin " + from + ", end " + to + ", length " + length());
+            }
+            return new Slice(content, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return content.substring(start, end);
+        }
+    }
+
+    /**
+     * Folds a string so that two strings are {@link String#equalsIgnoreCase}
+     * exactly when their folded forms are equal.
+     */
+    static String foldCase(String value) {
+        StringBuilder folded = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            folded.append(Character.toLowerCase(Character.toUpperCase(value.charAt(i))));
+        }
+        return folded.toString();
+    }
+}
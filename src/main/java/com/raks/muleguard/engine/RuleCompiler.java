@@ -0,0 +1,67 @@
+package com.raks.muleguard.engine;
+
+import com.raks.muleguard.checks.CheckFactory;
+import com.raks.muleguard.model.Check;
+import com.raks.muleguard.model.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the configured rules into a rule plan once per run, before any
+ * project is validated. Each check implementation gets the chance to
+ * precompile its expressions and to report configuration errors up front.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class RuleCompiler {
+
+    private RuleCompiler() {
+    }
+
+    public static List<CompiledRule> compile(List<Rule> rules) {
+        List<CompiledRule> plan = new ArrayList<>(rules.size());
+        List<CompiledCheck> allChecks = new ArrayList<>();
+        for (Rule rule : rules) {
+            List<CompiledCheck> checks = new ArrayList<>();
+            if (rule.getChecks() != null) {
+                for (Check check : rule.getChecks()) {
+                    checks.add(compile(check, rule.getId()));
+                }
+            }
+            allChecks.addAll(checks);
+            plan.add(new CompiledRule(rule, checks));
+        }
+
+        // The literal tokens and streamable XPaths of all checks of the plan are
+        // evaluated together
+        FusedTokenScanner.build(allChecks);
+        FusedXPathMatcher.build(allChecks);
+        return plan;
+    }
+
+    private static CompiledCheck compile(Check check, String ruleId) {
+        CompiledCheck compiled = new CompiledCheck(check, ruleId);
+        try {
+            CheckFactory.create(compiled).compile(compiled);
+        } catch (Exception e) {
+            compiled.addConfigError(e.getMessage());
+        }
+        return compiled;
+    }
+
+    /**
+     * @return The configuration errors of all checks, prefixed by rule id
+     */
+    public static List<String> getConfigErrors(List<CompiledRule> plan) {
+        List<String> errors = new ArrayList<>();
+        for (CompiledRule rule : plan) {
+            for (CompiledCheck check : rule.getChecks()) {
+                for (String error : check.getConfigErrors()) {
+                    errors.add(rule.getId() + " (" + check.getType() + "): " + error);
+                }
+            }
+        }
+        return errors;
+    }
+}
@@ -1,11 +1,10 @@
 package com.raks.muleguard.engine;
 
-import com.raks.muleguard.model.Check;
 import com.raks.muleguard.model.CheckResult;
 
 public class RuleExecutor {
-    public static CheckResult executeCheck(com.raks.muleguard.checks.AbstractCheck check, java.nio.file.Path root,
-            Check config) {
-        return check.execute(root, config);
+    public static CheckResult executeCheck(com.raks.muleguard.checks.AbstractCheck check, ProjectContext context,
+            CompiledCheck config) {
+        return check.execute(context, config);
     }
 }
\ No newline at end of file
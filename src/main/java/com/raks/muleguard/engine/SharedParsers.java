@@ -0,0 +1,109 @@
+package com.raks.muleguard.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Parser collaborators that are expensive to create (factory lookups go
+ * through the service loader) and are therefore created once per run and
+ * shared by all checks.
+ *
+ * The {@link ObjectMapper} is thread-safe once configured. Factories,
+ * document builders and XPath objects are not guaranteed to be, so the DOM
+ * builder, the XPath object and the StAX factory are confined to the thread
+ * that uses them: each thread creates its own once and reuses it, reset to its
+ * initial configuration, for every file.
+ *
+ * All XML is parsed with one offline profile: namespace-aware, not
+ * validating, and with every external DTD and entity resolved by
+ * {@link OfflineEntityResolver}, which only reads the local XML catalog, so
+ * parse time never depends on the network.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class SharedParsers {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal
+            .withInitial(SharedParsers::createDocumentBuilder);
+
+    private static final ThreadLocal<XPath> XPATH = ThreadLocal
+            .withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORY = ThreadLocal
+            .withInitial(SharedParsers::createXmlInputFactory);
+
+    private SharedParsers() {
+    }
+
+    /**
+     * @return The JSON mapper shared by all checks
+     */
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * @return The calling thread's DOM builder, reset for a new parse. It must
+     *         not be handed to another thread.
+     */
+    public static DocumentBuilder documentBuilder() {
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        builder.reset();
+        builder.setEntityResolver(OfflineEntityResolver.INSTANCE);
+        return builder;
+    }
+
+    /**
+     * @return The calling thread's XPath object, reset (no namespace context,
+     *         variable or function resolver). It must not be handed to another
+     *         thread.
+     */
+    public static XPath xpath() {
+        XPath xpath = XPATH.get();
+        xpath.reset();
+        return xpath;
+    }
+
+    /**
+     * @return The calling thread's namespace-aware StAX factory
+     */
+    public static XMLInputFactory xmlInputFactory() {
+        return XML_INPUT_FACTORY.get();
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        factory.setXIncludeAware(false);
+        return factory;
+    }
+
+    private static DocumentBuilder createDocumentBuilder() {
+        // The factory is only used to create each thread's builder
+        synchronized (DOCUMENT_BUILDER_FACTORY) {
+            try {
+                return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("Cannot create XML document builder", e);
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setXMLResolver(OfflineEntityResolver.INSTANCE);
+        return factory;
+    }
+}
@@ -0,0 +1,323 @@
+package com.raks.muleguard.engine;
+
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An XPath expression from the forward-only subset that can be evaluated on
+ * StAX events, without building a DOM.
+ *
+ * Supported are absolute location paths of child ({@code /}) and descendant
+ * ({@code //}) steps selecting elements, where each step is {@code *} or an
+ * unprefixed element name, followed by any number of predicates. A predicate
+ * is one or more conditions joined with {@code and}:
+ * <ul>
+ * <li>{@code local-name()='value'} and {@code name()='value'}</li>
+ * <li>{@code @attr} and {@code @*} (attribute exists)</li>
+ * <li>{@code @attr='value'} (attribute has value)</li>
+ * </ul>
+ * For example {@code //*[local-name()='listener'][@config-ref]}. Anything else
+ * (other axes, functions, positions, prefixed names, ...) is left to the DOM
+ * evaluator: {@link #compile(String)} returns null for it.
+ *
+ * Matching keeps, per open element, the set of steps matched by the element
+ * itself and by any of its ancestors, so an element is tested once, when its
+ * start tag is read.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class StreamingXPath {
+
+    /** Steps are tracked as bits of a long, bit 0 being the document node */
+    private static final int MAX_STEPS = Long.SIZE - 1;
+
+    private final String expression;
+    private final Step[] steps;
+
+    private StreamingXPath(String expression, List<Step> steps) {
+        this.expression = expression;
+        this.steps = steps.toArray(new Step[0]);
+    }
+
+    /**
+     * @return The compiled expression, or null if it is outside the supported
+     *         subset
+     */
+    public static StreamingXPath compile(String expression) {
+        if (expression == null) {
+            return null;
+        }
+        List<Step> steps = new Parser(expression).parse();
+        if (steps == null || steps.isEmpty() || steps.size() > MAX_STEPS) {
+            return null;
+        }
+        return new StreamingXPath(expression, steps);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return The step bits of the document node, as passed to
+     *         {@link #match(long, long, XMLStreamReader)} for the root element
+     */
+    static long documentSteps() {
+        return 1L;
+    }
+
+    /**
+     * Determines the steps matched by the element at the reader's start tag.
+     *
+     * @param parentSteps   Steps matched by the parent node
+     * @param ancestorSteps Steps matched by the parent node or any of its
+     *                      ancestors
+     * @return Steps matched by the element; the expression selects the element
+     *         if {@link #selects(long)} holds for the result
+     */
+    long match(long parentSteps, long ancestorSteps, XMLStreamReader reader) {
+        long matched = 0;
+        for (int k = 1; k <= steps.length; k++) {
+            Step step = steps[k - 1];
+            long context = step.descendant ? ancestorSteps : parentSteps;
+            if ((context & (1L << (k - 1))) != 0 && step.test(reader)) {
+                matched |= 1L << k;
+            }
+        }
+        return matched;
+    }
+
+    boolean selects(long elementSteps) {
+        return (elementSteps & (1L << steps.length)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static final class Step {
+        private final boolean descendant;
+        // Element name without namespace, or null for *
+        private final String name;
+        private final List<Condition> conditions = new ArrayList<>();
+
+        private Step(boolean descendant, String name) {
+            this.descendant = descendant;
+            this.name = name;
+        }
+
+        private boolean test(XMLStreamReader reader) {
+            if (name != null && (!name.equals(reader.getLocalName()) || !isEmpty(reader.getNamespaceURI()))) {
+                return false;
+            }
+            for (Condition condition : conditions) {
+                if (!condition.test(reader)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private enum ConditionType {
+        LOCAL_NAME, NAME, ATTRIBUTE
+    }
+
+    private static final class Condition {
+        private final ConditionType type;
+        // Attribute name without namespace, or null for @*
+        private final String attribute;
+        // Expected value, or null for attribute existence
+        private final String value;
+
+        private Condition(ConditionType type, String attribute, String value) {
+            this.type = type;
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        private boolean test(XMLStreamReader reader) {
+            switch (type) {
+                case LOCAL_NAME:
+                    return value.equals(reader.getLocalName());
+                case NAME:
+                    return value.equals(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+                default:
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        if (attribute != null && (!attribute.equals(reader.getAttributeLocalName(i))
+                                || !isEmpty(reader.getAttributeNamespace(i)))) {
+                            continue;
+                        }
+                        if (value == null || value.equals(reader.getAttributeValue(i))) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return isEmpty(prefix) ? localName : prefix + ":" + localName;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * Recursive descent parser for the supported subset; every method returns
+     * null when the input leaves the subset.
+     */
+    private static final class Parser {
+        private final String input;
+        private int pos;
+
+        private Parser(String input) {
+            this.input = input;
+        }
+
+        private List<Step> parse() {
+            List<Step> steps = new ArrayList<>();
+            skipWhitespace();
+            while (pos < input.length()) {
+                if (!input.startsWith("/", pos)) {
+                    return null;
+                }
+                boolean descendant = input.startsWith("//", pos);
+                pos += descendant ? 2 : 1;
+                skipWhitespace();
+
+                Step step;
+                if (input.startsWith("*", pos)) {
+                    pos++;
+                    step = new Step(descendant, null);
+                } else {
+                    String name = name();
+                    if (name == null || peek() == ':' || peek() == '(') {
+                        return null;
+                    }
+                    step = new Step(descendant, name);
+                }
+
+                skipWhitespace();
+                while (peek() == '[') {
+                    pos++;
+                    if (!predicate(step.conditions)) {
+                        return null;
+                    }
+                    skipWhitespace();
+                }
+                steps.add(step);
+            }
+            return steps;
+        }
+
+        private boolean predicate(List<Condition> conditions) {
+            while (true) {
+                skipWhitespace();
+                Condition condition = condition();
+                if (condition == null) {
+                    return false;
+                }
+                conditions.add(condition);
+                skipWhitespace();
+                if (peek() == ']') {
+                    pos++;
+                    return true;
+                }
+                if (!"and".equals(name())) {
+                    return false;
+                }
+            }
+        }
+
+        private Condition condition() {
+            if (peek() == '@') {
+                pos++;
+                String attribute = null;
+                if (peek() == '*') {
+                    pos++;
+                } else {
+                    attribute = name();
+                    if (attribute == null || peek() == ':') {
+                        return null;
+                    }
+                }
+                skipWhitespace();
+                if (peek() != '=') {
+                    return new Condition(ConditionType.ATTRIBUTE, attribute, null);
+                }
+                pos++;
+                String value = literal();
+                return value == null ? null : new Condition(ConditionType.ATTRIBUTE, attribute, value);
+            }
+
+            String function = name();
+            ConditionType type;
+            if ("local-name".equals(function)) {
+                type = ConditionType.LOCAL_NAME;
+            } else if ("name".equals(function)) {
+                type = ConditionType.NAME;
+            } else {
+                return null;
+            }
+            if (!expect('(') || !expect(')') || !expect('=')) {
+                return null;
+            }
+            String value = literal();
+            return value == null ? null : new Condition(type, null, value);
+        }
+
+        private String literal() {
+            skipWhitespace();
+            char quote = peek();
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+            int end = input.indexOf(quote, pos + 1);
+            if (end < 0) {
+                return null;
+            }
+            String value = input.substring(pos + 1, end);
+            pos = end + 1;
+            return value;
+        }
+
+        private String name() {
+            int start = pos;
+            if (pos < input.length() && (Character.isLetter(input.charAt(pos)) || input.charAt(pos) == '_')) {
+                pos++;
+                while (pos < input.length() && isNameChar(input.charAt(pos))) {
+                    pos++;
+                }
+            }
+            return pos > start ? input.substring(start, pos) : null;
+        }
+
+        private boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+        }
+
+        private boolean expect(char c) {
+            skipWhitespace();
+            if (peek() != c) {
+                return false;
+            }
+            pos++;
+            return true;
+        }
+
+        private char peek() {
+            return pos < input.length() ? input.charAt(pos) : 0;
+        }
+
+        private void skipWhitespace() {
+            while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
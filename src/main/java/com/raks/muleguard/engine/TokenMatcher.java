@@ -0,0 +1,234 @@
+package com.raks.muleguard.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton that finds any number of literal tokens in a single
+ * linear pass over the text, instead of one {@code String.contains} call (and
+ * one pass) per token.
+ *
+ * Case-insensitive matching finds exactly what
+ * {@code text.toLowerCase().contains(token.toLowerCase())} finds. Each
+ * character is folded with {@link Character#toLowerCase(char)} while scanning,
+ * so the text is not lowercased as a whole. The exception is a text with a
+ * character that {@link String#toLowerCase()} maps differently, such as
+ * {@code U+0130}, a final sigma or a supplementary character. Such a text is
+ * lowercased like {@code String.toLowerCase()} and then scanned. Empty tokens
+ * are contained in every text, as with {@code String.contains}.
+ *
+ * Instances are immutable and thread-safe; build them once per check (see
+ * {@link CompiledCheck#getTokenMatcher(List, boolean)}).
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class TokenMatcher {
+
+    private static final int ROOT = 0;
+
+    private final int tokenCount;
+    private final boolean ignoreCase;
+
+    // Goto function: sorted transition characters and target states per state
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] failure;
+    // Indices of all tokens ending in a state (including via failure links)
+    private final int[][] outputs;
+
+    private TokenMatcher(List<String> tokens, boolean ignoreCase) {
+        this.tokenCount = tokens.size();
+        this.ignoreCase = ignoreCase;
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> tokenEnds = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        tokenEnds.add(new ArrayList<>());
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = ignoreCase ? tokens.get(i).toLowerCase() : tokens.get(i);
+            int state = ROOT;
+            for (int j = 0; j < token.length(); j++) {
+                char c = token.charAt(j);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    tokenEnds.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            tokenEnds.get(state).add(i);
+        }
+
+        int states = trie.size();
+        keys = new char[states][];
+        targets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            Map<Character, Integer> transitions = trie.get(state);
+            keys[state] = new char[transitions.size()];
+            targets[state] = new int[transitions.size()];
+            int k = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                keys[state][k] = transition.getKey();
+                targets[state][k] = transition.getValue();
+                k++;
+            }
+        }
+
+        // Breadth-first construction of failure links and merged outputs
+        failure = new int[states];
+        outputs = new int[states][];
+        outputs[ROOT] = toArray(tokenEnds.get(ROOT));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = merge(tokenEnds.get(state), outputs[failure[state]]);
+            for (int k = 0; k < keys[state].length; k++) {
+                int child = targets[state][k];
+                failure[child] = next(failure[state], keys[state][k]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Builds the automaton for the given tokens; token indices reported by the
+     * matcher are indices into this list.
+     */
+    public static TokenMatcher compile(List<String> tokens, boolean ignoreCase) {
+        return new TokenMatcher(tokens, ignoreCase);
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * @return The indices of all tokens contained in the text
+     */
+    public BitSet findAll(CharSequence text) {
+        BitSet found = new BitSet(tokenCount);
+        findAll(text, found);
+        return found;
+    }
+
+    /**
+     * Adds the indices of all tokens contained in the text to {@code found}.
+     * Scanning stops as soon as every token has been found.
+     *
+     * @return Whether all tokens have been found
+     */
+    public boolean findAll(CharSequence text, BitSet found) {
+        int remaining = tokenCount - found.cardinality();
+        remaining -= record(outputs[ROOT], found);
+
+        int state = ROOT;
+        for (int i = 0; i < text.length() && remaining > 0; i++) {
+            char c = text.charAt(i);
+            if (ignoreCase) {
+                if (IrregularCase.contains(c)) {
+                    return findAllLowercased(text.toString().toLowerCase(), found);
+                }
+                c = Character.toLowerCase(c);
+            }
+            state = next(state, c);
+            remaining -= record(outputs[state], found);
+        }
+        return remaining <= 0;
+    }
+
+    private boolean findAllLowercased(String text, BitSet found) {
+        int remaining = tokenCount - found.cardinality();
+        int state = ROOT;
+        for (int i = 0; i < text.length() && remaining > 0; i++) {
+            state = next(state, text.charAt(i));
+            remaining -= record(outputs[state], found);
+        }
+        return remaining <= 0;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int k = Arrays.binarySearch(keys[state], c);
+            if (k >= 0) {
+                return targets[state][k];
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    private static int record(int[] tokenIndices, BitSet found) {
+        int added = 0;
+        for (int index : tokenIndices) {
+            if (!found.get(index)) {
+                found.set(index);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        int[] merged = Arrays.copyOf(toArray(own), own.size() + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+        return merged;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * The characters that {@link String#toLowerCase()} does not map to
+     * {@link Character#toLowerCase(char)} in the default locale. Some map to
+     * several characters ({@code U+0130}), and some depend on the surrounding
+     * text: a final sigma, surrogate pairs, and the special casings of
+     * Lithuanian, Turkish and Azeri. Built on first use.
+     */
+    private static final class IrregularCase {
+        private static final BitSet CHARACTERS = build();
+
+        static boolean contains(char c) {
+            return CHARACTERS.get(c);
+        }
+
+        private static BitSet build() {
+            BitSet irregular = new BitSet(Character.MAX_VALUE + 1);
+            for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+                String lowercased = String.valueOf((char) c).toLowerCase();
+                if (lowercased.length() != 1 || lowercased.charAt(0) != Character.toLowerCase((char) c)) {
+                    irregular.set(c);
+                }
+            }
+            irregular.set(Character.MIN_SURROGATE, Character.MAX_SURROGATE + 1);
+            irregular.set('\u03A3');
+            String language = Locale.getDefault().getLanguage();
+            if ("lt".equals(language) || "tr".equals(language) || "az".equals(language)) {
+                for (char c : "IJ\u00CC\u00CD\u0128\u012E\u0307".toCharArray()) {
+                    irregular.set(c);
+                }
+            }
+            return irregular;
+        }
+    }
+}
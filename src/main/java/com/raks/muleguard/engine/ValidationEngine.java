@@ -2,20 +2,52 @@ package com.raks.muleguard.engine;
 
 import com.raks.muleguard.checks.AbstractCheck;
 import com.raks.muleguard.checks.CheckFactory;
-import com.raks.muleguard.model.*;
+import com.raks.muleguard.model.CheckResult;
+import com.raks.muleguard.model.ValidationReport;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 public class ValidationEngine {
-    private final List<Rule> rules;
+    private final List<CompiledRule> rules;
     private final Path projectRoot;
+    private final ExecutorService checkExecutor;
+    private final FileContentCache contentCache;
+    private final XmlParseStatistics parseStatistics;
+    private final PomResolver pomResolver;
+    private final IgnoredFolders ignoredFolders;
 
-    public ValidationEngine(List<Rule> rules, Path projectRoot) {
+    public ValidationEngine(List<CompiledRule> rules, Path projectRoot) {
+        this(rules, projectRoot, null, new FileContentCache(), new XmlParseStatistics(),
+                new PomResolver(Collections.emptyList(), PomResolver.defaultLocalRepository()), IgnoredFolders.NONE);
+    }
+
+    /**
+     * @param rules           The compiled rule plan (see {@link RuleCompiler}),
+     *                        shared read-only by all projects of the run
+     * @param checkExecutor   Optional shared pool used to run the checks of this
+     *                        project concurrently. When null, checks run one
+     *                        after another on the calling thread.
+     * @param contentCache    File content cache shared by all projects of the run
+     * @param parseStatistics XML parse times of all projects of the run
+     * @param pomResolver     Parent POMs resolved for all projects of the run
+     * @param ignoredFolders  Folders that are not indexed, at any depth
+     */
+    public ValidationEngine(List<CompiledRule> rules, Path projectRoot, ExecutorService checkExecutor,
+            FileContentCache contentCache, XmlParseStatistics parseStatistics, PomResolver pomResolver,
+            IgnoredFolders ignoredFolders) {
         this.rules = rules;
         this.projectRoot = projectRoot;
+        this.checkExecutor = checkExecutor;
+        this.contentCache = contentCache;
+        this.parseStatistics = parseStatistics;
+        this.pomResolver = pomResolver;
+        this.ignoredFolders = ignoredFolders;
     }
 
     public ValidationReport validate() {
@@ -26,7 +58,34 @@ public class ValidationEngine {
         ValidationReport report = new ValidationReport();
         report.projectPath = projectRoot.toString();
 
-        for (Rule rule : rules) {
+        // The project tree is walked once; all checks query the shared index.
+        // Per-project caches are released as soon as the project is done.
+        try (ProjectContext context = ProjectContext.create(projectRoot, contentCache, parseStatistics,
+                pomResolver, ignoredFolders)) {
+            runRules(context, report);
+        }
+
+        return report;
+    }
+
+    private void runRules(ProjectContext context, ValidationReport report) {
+        // In concurrent mode every check of every rule is submitted up front; the
+        // results are collected below in rule order, exactly as in sequential mode.
+        List<List<CompletableFuture<CheckResult>>> pending = new ArrayList<>();
+        if (checkExecutor != null) {
+            for (CompiledRule rule : rules) {
+                List<CompletableFuture<CheckResult>> futures = new ArrayList<>();
+                if (rule.isEnabled()) {
+                    for (CompiledCheck check : rule.getChecks()) {
+                        futures.add(CompletableFuture.supplyAsync(() -> runCheck(context, rule, check), checkExecutor));
+                    }
+                }
+                pending.add(futures);
+            }
+        }
+
+        for (int i = 0; i < rules.size(); i++) {
+            CompiledRule rule = rules.get(i);
             if (!rule.isEnabled()) {
                 report.addSkipped(rule.getId(), rule.getName());
                 continue;
@@ -35,21 +94,19 @@ public class ValidationEngine {
             List<CheckResult> results = new ArrayList<>();
             boolean rulePassed = true;
 
-            for (Check check : rule.getChecks()) {
-                try {
-                    check.setRuleId(rule.getId());
-                    AbstractCheck validator = CheckFactory.create(check);
-                    CheckResult result = validator.execute(projectRoot, check);
-                    results.add(result);
-                    if (!result.passed)
-                        rulePassed = false;
-                } catch (Exception e) {
-                    CheckResult errorResult = CheckResult.fail(rule.getId(),
-                            check.getDescription() != null ? check.getDescription() : check.getType(),
-                            "Execution error: " + e.getMessage());
-                    results.add(errorResult);
-                    rulePassed = false;
+            if (checkExecutor != null) {
+                for (CompletableFuture<CheckResult> future : pending.get(i)) {
+                    results.add(future.join());
                 }
+            } else {
+                for (CompiledCheck check : rule.getChecks()) {
+                    results.add(runCheck(context, rule, check));
+                }
+            }
+
+            for (CheckResult result : results) {
+                if (!result.passed)
+                    rulePassed = false;
             }
 
             if (rulePassed) {
@@ -58,7 +115,16 @@ public class ValidationEngine {
                 report.addFailed(rule.getId(), rule.getName(), rule.getSeverity(), results);
             }
         }
+    }
 
-        return report;
+    private CheckResult runCheck(ProjectContext context, CompiledRule rule, CompiledCheck check) {
+        try {
+            AbstractCheck validator = CheckFactory.create(check);
+            return validator.execute(context, check);
+        } catch (Exception e) {
+            return CheckResult.fail(rule.getId(),
+                    check.getDescription() != null ? check.getDescription() : check.getType(),
+                    "Execution error: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.raks.muleguard.engine;
+
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-project cache of parsed, namespace-aware DOM documents shared by all XML
+ * checks, so each XML file of a project is parsed at most once.
+ *
+ * The cache is bounded by the total size of the source files it holds (least
+ * recently used documents are dropped first) and is cleared when the project
+ * has been validated. Parse failures are cached as well and reported again to
+ * every check that asks for the same file.
+ *
+ * The time of every parse is recorded in the run's {@link XmlParseStatistics}.
+ *
+ * DOM implementations are not thread-safe, not even for reads, so a cached
+ * document must be read while holding its monitor ({@code synchronized (doc)}).
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public class XmlDocumentCache {
+
+    public static final long DEFAULT_MAX_SOURCE_BYTES = 64L * 1024 * 1024;
+
+    private final long maxSourceBytes;
+    private final XmlParseStatistics parseStatistics;
+    private final LinkedHashMap<Path, CachedDocument> documents = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder parses = new LongAdder();
+
+    public XmlDocumentCache() {
+        this(new XmlParseStatistics());
+    }
+
+    public XmlDocumentCache(XmlParseStatistics parseStatistics) {
+        this(DEFAULT_MAX_SOURCE_BYTES, parseStatistics);
+    }
+
+    public XmlDocumentCache(long maxSourceBytes, XmlParseStatistics parseStatistics) {
+        this.maxSourceBytes = maxSourceBytes;
+        this.parseStatistics = parseStatistics;
+    }
+
+    /**
+     * Returns the parsed document for a file, parsing it on first access.
+     * Callers must synchronize on the returned document while reading it.
+     *
+     * @throws Exception The parse error of the file, if it is not well-formed
+     */
+    public Document get(Path file) throws Exception {
+        Path key = file.toAbsolutePath().normalize();
+
+        CachedDocument cached;
+        boolean owner = false;
+        synchronized (this) {
+            cached = documents.get(key);
+            if (cached == null) {
+                cached = new CachedDocument();
+                documents.put(key, cached);
+                owner = true;
+            } else {
+                hits.increment();
+            }
+        }
+
+        if (owner) {
+            parse(key, cached);
+        }
+
+        try {
+            return cached.document.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void parse(Path key, CachedDocument cached) {
+        parses.increment();
+        try {
+            cached.size = Files.size(key);
+            DocumentBuilder builder = SharedParsers.documentBuilder();
+            long start = System.nanoTime();
+            Document document;
+            try {
+                document = builder.parse(key.toFile());
+            } finally {
+                parseStatistics.record(key, System.nanoTime() - start);
+            }
+            cached.document.complete(document);
+        } catch (Exception e) {
+            cached.document.completeExceptionally(e);
+        }
+
+        synchronized (this) {
+            if (documents.get(key) == cached) {
+                currentBytes += cached.size;
+                evict(cached);
+            }
+        }
+    }
+
+    private void evict(CachedDocument keep) {
+        Iterator<Map.Entry<Path, CachedDocument>> eldest = documents.entrySet().iterator();
+        while (currentBytes > maxSourceBytes && eldest.hasNext()) {
+            CachedDocument candidate = eldest.next().getValue();
+            if (candidate == keep || !candidate.document.isDone()) {
+                continue;
+            }
+            currentBytes -= candidate.size;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drops all cached documents (called when the project has been validated).
+     */
+    public synchronized void clear() {
+        documents.clear();
+        currentBytes = 0;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getParses() {
+        return parses.sum();
+    }
+
+    private static final class CachedDocument {
+        final CompletableFuture<Document> document = new CompletableFuture<>();
+        long size;
+    }
+}
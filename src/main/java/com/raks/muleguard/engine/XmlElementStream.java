@@ -0,0 +1,216 @@
+package com.raks.muleguard.engine;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming (StAX) evaluation of XML files for checks that only look at
+ * element names, attributes and text content.
+ *
+ * A file is read once, start to end, and every element whose qualified name
+ * is one of the requested names is handed to the caller, which evaluates all
+ * of its conditions against it. No DOM is built: only the elements currently
+ * open are held in memory, so memory does not grow with the size of the file.
+ *
+ * Names, attributes and text follow the namespace-aware DOM used by the other
+ * XML checks: elements are matched on their qualified name (as
+ * {@code getElementsByTagName}), namespace declarations count as attributes
+ * and the text content includes the text of all descendants.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class XmlElementStream {
+
+    /**
+     * Receives the matching elements of a file.
+     */
+    @FunctionalInterface
+    public interface ElementHandler {
+        void element(StreamedElement element) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface ReaderHandler {
+        void read(XMLStreamReader reader) throws Exception;
+    }
+
+    private XmlElementStream() {
+    }
+
+    /**
+     * Streams a file and passes each element with one of the given names to the
+     * handler. Without text the elements are passed at their start tag, in
+     * document order; with text they are passed at their end tag, once their
+     * text content is complete ({@link StreamedElement#getOrdinal()} still gives
+     * the document order).
+     *
+     * @throws Exception The parse error of the file, as reported by
+     *                   {@link XmlDocumentCache#get(Path)}, if it is not
+     *                   well-formed
+     */
+    public static void scan(ProjectContext context, Path file, Set<String> elementNames, boolean withText,
+            ElementHandler handler) throws Exception {
+        stream(context, file, reader -> scan(reader, elementNames, withText, handler));
+    }
+
+    /**
+     * Reads a file with the calling thread's StAX factory, recording the time of
+     * the pass in the project's {@link XmlParseStatistics}. A file that is not
+     * well-formed fails with the parse error of {@link XmlDocumentCache#get(Path)}.
+     */
+    static void stream(ProjectContext context, Path file, ReaderHandler handler) throws Exception {
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = SharedParsers.xmlInputFactory()
+                    .createXMLStreamReader(file.toUri().toString(), in);
+            try {
+                handler.read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            context.getParseStatistics().record(file, System.nanoTime() - start);
+            // Report malformed files with the same message as the DOM based checks
+            context.getXmlDocuments().get(file);
+            throw e;
+        }
+        context.getParseStatistics().record(file, System.nanoTime() - start);
+    }
+
+    private static void scan(XMLStreamReader reader, Set<String> elementNames, boolean withText,
+            ElementHandler handler) throws Exception {
+        // Open elements, with NONE for the ones that are not passed at their end tag
+        Deque<StreamedElement> open = new ArrayDeque<>();
+        int openMatches = 0;
+        int ordinal = 0;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT: {
+                    String name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+                    if (!elementNames.contains(name)) {
+                        open.push(StreamedElement.NONE);
+                        break;
+                    }
+                    StreamedElement element = new StreamedElement(name, ordinal++, attributes(reader), withText);
+                    if (withText) {
+                        open.push(element);
+                        openMatches++;
+                    } else {
+                        open.push(StreamedElement.NONE);
+                        handler.element(element);
+                    }
+                    break;
+                }
+                case XMLStreamConstants.END_ELEMENT: {
+                    StreamedElement element = open.pop();
+                    if (element != StreamedElement.NONE) {
+                        openMatches--;
+                        handler.element(element);
+                    }
+                    break;
+                }
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (openMatches > 0) {
+                        appendText(open, reader);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void appendText(Deque<StreamedElement> open, XMLStreamReader reader) {
+        for (StreamedElement element : open) {
+            if (element != StreamedElement.NONE) {
+                element.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+    }
+
+    private static Map<String, String> attributes(XMLStreamReader reader) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            attributes.put(qualifiedName("xmlns", prefix), reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.isEmpty()) {
+            return localName;
+        }
+        if (localName == null || localName.isEmpty()) {
+            return prefix;
+        }
+        return prefix + ":" + localName;
+    }
+
+    /**
+     * An element of a streamed file. Attribute lookups behave like
+     * {@link org.w3c.dom.Element#hasAttribute(String)} and
+     * {@link org.w3c.dom.Element#getAttribute(String)}.
+     */
+    public static final class StreamedElement {
+
+        private static final StreamedElement NONE = new StreamedElement(null, -1, Collections.emptyMap(), false);
+
+        private final String name;
+        private final int ordinal;
+        private final Map<String, String> attributes;
+        private final StringBuilder text;
+
+        private StreamedElement(String name, int ordinal, Map<String, String> attributes, boolean withText) {
+            this.name = name;
+            this.ordinal = ordinal;
+            this.attributes = attributes;
+            this.text = withText ? new StringBuilder() : null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The position of the element among the matching elements of the
+         *         file, in document order
+         */
+        public int getOrdinal() {
+            return ordinal;
+        }
+
+        public boolean hasAttribute(String attrName) {
+            return attributes.containsKey(attrName);
+        }
+
+        public String getAttribute(String attrName) {
+            return attributes.getOrDefault(attrName, "");
+        }
+
+        /**
+         * @return The text of the element and its descendants, or null if the
+         *         file was streamed without text
+         */
+        public String getTextContent() {
+            return text != null ? text.toString() : null;
+        }
+    }
+}
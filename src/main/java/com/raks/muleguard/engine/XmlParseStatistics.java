@@ -0,0 +1,68 @@
+package com.raks.muleguard.engine;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parse-time metrics of the XML files of a run, shared by all projects like
+ * the {@link FileContentCache}. Every DOM parse and every streaming pass over
+ * a file is recorded with its duration, so a slow file shows up in the run
+ * summary.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public class XmlParseStatistics {
+
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private long maxNanos;
+    private Path slowestFile;
+
+    /**
+     * Records one parse (or streaming pass) of a file.
+     */
+    public void record(Path file, long nanos) {
+        parses.increment();
+        totalNanos.add(nanos);
+        synchronized (this) {
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+                slowestFile = file;
+            }
+        }
+    }
+
+    public long getParses() {
+        return parses.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public synchronized Path getSlowestFile() {
+        return slowestFile;
+    }
+
+    /**
+     * @return One-line summary of the parse times for the end of a run
+     */
+    public String getStatistics() {
+        long count = getParses();
+        if (count == 0) {
+            return "XML parsing: 0 parses";
+        }
+        return String.format("XML parsing: %d parses in %.1f ms (%.2f ms average), slowest %.1f ms: %s",
+                count, toMillis(getTotalNanos()), toMillis(getTotalNanos()) / count, toMillis(getMaxNanos()),
+                getSlowestFile());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
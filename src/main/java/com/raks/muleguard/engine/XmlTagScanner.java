@@ -0,0 +1,317 @@
+package com.raks.muleguard.engine;
+
+import java.util.Arrays;
+
+/**
+ * Linear, allocation-light tokenizer for the start tags of an XML text, for
+ * checks that look at element and attribute names (and raw tag text) without
+ * needing a parsed document.
+ *
+ * The text is scanned once from start to end. Comments, CDATA sections,
+ * processing instructions, declarations and end tags are skipped; for each
+ * start tag the handler sees a {@link Tag} view holding the spans of the tag
+ * name and of its attribute names and values. Quoted attribute values may
+ * contain {@code >}. Matching that ignores case does so for ASCII letters
+ * only, as the regexes it replaces did. The view is reused for the next tag,
+ * so handlers must not keep it. Malformed input never fails: scanning stops at
+ * the first construct that is not closed.
+ *
+ * @author Rakesh Kumar (raksjnu@gmail.com)
+ */
+public final class XmlTagScanner {
+
+    /**
+     * Receives the start tags of a text in document order.
+     */
+    @FunctionalInterface
+    public interface TagHandler {
+        /**
+         * @return Whether to continue with the next tag
+         */
+        boolean startTag(Tag tag);
+    }
+
+    private XmlTagScanner() {
+    }
+
+    /**
+     * Passes every start tag of the text to the handler, until the handler
+     * returns false.
+     */
+    public static void scan(CharSequence text, TagHandler handler) {
+        Tag tag = new Tag(text);
+        int length = text.length();
+        int pos = indexOf(text, '<', 0);
+
+        while (pos >= 0 && pos + 1 < length) {
+            char next = text.charAt(pos + 1);
+            if (next == '!') {
+                if (startsWith(text, pos, "<!--")) {
+                    pos = skipPast(text, pos + 4, "-->");
+                } else if (startsWith(text, pos, "<![CDATA[")) {
+                    pos = skipPast(text, pos + 9, "]]>");
+                } else {
+                    pos = skipDeclaration(text, pos + 2);
+                }
+            } else if (next == '?') {
+                pos = skipPast(text, pos + 2, "?>");
+            } else if (next == '/') {
+                pos = skipPast(text, pos + 2, ">");
+            } else {
+                pos = tag.parse(pos);
+                // A tag left open at the end of the text is not reported
+                if (pos < 0 || !handler.startTag(tag)) {
+                    return;
+                }
+            }
+            pos = pos < 0 ? -1 : indexOf(text, '<', pos);
+        }
+    }
+
+    /**
+     * A start tag of the scanned text, valid only during
+     * {@link TagHandler#startTag(Tag)}.
+     */
+    public static final class Tag {
+
+        private final CharSequence text;
+        private int nameStart;
+        private int nameEnd;
+        // Start of the tag's text after the name, and the position of its '>'
+        private int bodyStart;
+        private int end;
+        private int attributeCount;
+        // Per attribute: name start, name end, value start, value end
+        private int[] spans = new int[4 * 8];
+
+        private Tag(CharSequence text) {
+            this.text = text;
+        }
+
+        /**
+         * @return Whether the qualified tag name (as written) equals the name
+         */
+        public boolean nameEquals(String name, boolean ignoreCase) {
+            return regionEquals(nameStart, nameEnd, name, ignoreCase);
+        }
+
+        /**
+         * @return Whether the tag name without its prefix equals the name
+         */
+        public boolean localNameEquals(String name, boolean ignoreCase) {
+            return regionEquals(localStart(nameStart, nameEnd), nameEnd, name, ignoreCase);
+        }
+
+        public String getName() {
+            return text.subSequence(nameStart, nameEnd).toString();
+        }
+
+        public int getAttributeCount() {
+            return attributeCount;
+        }
+
+        /**
+         * @return Whether the tag has an attribute whose qualified name, or name
+         *         without prefix, equals the name
+         */
+        public boolean hasAttribute(String name, boolean ignoreCase) {
+            for (int i = 0; i < attributeCount; i++) {
+                int start = spans[4 * i];
+                int stop = spans[4 * i + 1];
+                if (regionEquals(start, stop, name, ignoreCase)
+                        || regionEquals(localStart(start, stop), stop, name, ignoreCase)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String getAttributeName(int index) {
+            return text.subSequence(spans[4 * index], spans[4 * index + 1]).toString();
+        }
+
+        /**
+         * @return The raw (not unescaped) value of the attribute, empty if it has
+         *         none
+         */
+        public String getAttributeValue(int index) {
+            return text.subSequence(spans[4 * index + 2], spans[4 * index + 3]).toString();
+        }
+
+        /**
+         * @return Whether the tag's text after its name (attributes, values and
+         *         whitespace, up to the closing {@code >}) contains the value
+         */
+        public boolean bodyContains(String value, boolean ignoreCase) {
+            for (int i = bodyStart; i + value.length() <= end; i++) {
+                if (regionEquals(i, i + value.length(), value, ignoreCase)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Parses the start tag at the position of its '<'.
+         *
+         * @return The position after the tag, or -1 if the tag is not closed
+         */
+        private int parse(int pos) {
+            int length = text.length();
+            attributeCount = 0;
+            nameStart = pos + 1;
+            int i = nameStart;
+            while (i < length && !isNameEnd(text.charAt(i))) {
+                i++;
+            }
+            nameEnd = i;
+            bodyStart = i;
+
+            while (i < length) {
+                char c = text.charAt(i);
+                if (c == '>') {
+                    end = i;
+                    return i + 1;
+                }
+                if (c == '/' || Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                }
+                // Attribute name, optionally followed by = and a value
+                int attributeStart = i;
+                while (i < length && !isNameEnd(text.charAt(i)) && text.charAt(i) != '=') {
+                    i++;
+                }
+                int attributeEnd = i;
+                int valueStart = i;
+                int valueEnd = i;
+                i = skipWhitespace(text, i);
+                if (i < length && text.charAt(i) == '=') {
+                    i = skipWhitespace(text, i + 1);
+                    if (i < length && (text.charAt(i) == '"' || text.charAt(i) == '\'')) {
+                        char quote = text.charAt(i);
+                        valueStart = i + 1;
+                        i = indexOf(text, quote, valueStart);
+                        if (i < 0) {
+                            i = length;
+                        }
+                        valueEnd = i;
+                        i = Math.min(i + 1, length);
+                    } else {
+                        // Unquoted value (not well-formed)
+                        valueStart = i;
+                        while (i < length && !isNameEnd(text.charAt(i))) {
+                            i++;
+                        }
+                        valueEnd = i;
+                    }
+                }
+                if (attributeEnd > attributeStart) {
+                    addAttribute(attributeStart, attributeEnd, valueStart, valueEnd);
+                }
+            }
+            end = length;
+            return -1;
+        }
+
+        private void addAttribute(int start, int stop, int valueStart, int valueEnd) {
+            if (4 * attributeCount + 4 > spans.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+            }
+            spans[4 * attributeCount] = start;
+            spans[4 * attributeCount + 1] = stop;
+            spans[4 * attributeCount + 2] = valueStart;
+            spans[4 * attributeCount + 3] = valueEnd;
+            attributeCount++;
+        }
+
+        private int localStart(int start, int stop) {
+            for (int i = stop - 1; i >= start; i--) {
+                if (text.charAt(i) == ':') {
+                    return i + 1;
+                }
+            }
+            return start;
+        }
+
+        private boolean regionEquals(int start, int stop, String value, boolean ignoreCase) {
+            if (stop - start != value.length()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char a = text.charAt(start + i);
+                char b = value.charAt(i);
+                if (a != b && (!ignoreCase || !equalsIgnoreCase(a, b))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Compares ASCII letters without case, like a {@code (?i)} regex without
+         * {@code UNICODE_CASE}; other characters must be equal.
+         */
+        private static boolean equalsIgnoreCase(char a, char b) {
+            return a < 128 && b < 128 && Character.toLowerCase(a) == Character.toLowerCase(b);
+        }
+
+        private static boolean isNameEnd(char c) {
+            return c == '>' || c == '/' || Character.isWhitespace(c);
+        }
+    }
+
+    private static int skipDeclaration(CharSequence text, int pos) {
+        // <!DOCTYPE ...> may contain an internal subset in brackets
+        int depth = 0;
+        for (int i = pos; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == '>' && depth <= 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipPast(CharSequence text, int pos, String terminator) {
+        int length = text.length() - terminator.length();
+        for (int i = pos; i <= length; i++) {
+            if (startsWith(text, i, terminator)) {
+                return i + terminator.length();
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence text, int pos, String prefix) {
+        if (pos + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(pos + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence text, char c, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(CharSequence text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
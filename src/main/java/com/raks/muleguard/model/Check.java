@@ -1,5 +1,6 @@
 package com.raks.muleguard.model;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Check {
@@ -40,4 +41,18 @@ public class Check {
     public void setRuleId(String ruleId) {
         this.ruleId = ruleId;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a copy of this check with its own top-level params map, so that
+     * per-project parameter injection (e.g. environments) does not leak into the
+     * shared rule configuration used by other projects.
+     */
+    public Check copy() {
+        Check copy = new Check();
+        copy.type = type;
+        copy.params = params != null ? new LinkedHashMap<>(params) : null;
+        copy.description = description;
+        copy.ruleId = ruleId;
+        return copy;
+    }
+}
@@ -1,5 +1,6 @@
 package com.raks.muleguard.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Rule {
@@ -59,4 +60,24 @@ public class Rule {
     public void setChecks(List<Check> checks) {
         this.checks = checks;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a copy of this rule with copied checks. Used to give every project
+     * its own rule instances when projects are validated concurrently.
+     */
+    public Rule copy() {
+        Rule copy = new Rule();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.enabled = enabled;
+        copy.severity = severity;
+        if (checks != null) {
+            copy.checks = new ArrayList<>(checks.size());
+            for (Check check : checks) {
+                copy.checks.add(check.copy());
+            }
+        }
+        return copy;
+    }
+}
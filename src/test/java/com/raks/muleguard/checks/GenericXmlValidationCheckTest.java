@@ -0,0 +1,175 @@
+package com.raks.muleguard.checks;
+
+import com.raks.muleguard.engine.CompiledCheck;
+import com.raks.muleguard.engine.FileContentCache;
+import com.raks.muleguard.engine.ProjectContext;
+import com.raks.muleguard.engine.ProjectFileIndex;
+import com.raks.muleguard.model.Check;
+import com.raks.muleguard.model.CheckResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the ATTRIBUTE_EXISTS, FORBIDDEN_VALUE and FORBIDDEN_ATTRIBUTE modes,
+ * which scan start tags with {@link com.raks.muleguard.engine.XmlTagScanner},
+ * with the regexes they replace, and pins down where they intentionally differ.
+ */
+class GenericXmlValidationCheckTest {
+
+    /** One tag per line, whole names: the cases the regexes got right */
+    private static final String CORPUS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<mule xmlns=\"http://www.mulesoft.org/schema/mule/core\" xmlns:http=\"http://www.mulesoft.org/schema/mule/http\" xmlns:doc=\"http://www.mulesoft.org/schema/mule/documentation\" xmlns:db=\"http://www.mulesoft.org/schema/mule/db\">\n"
+            + "  <http:listener-config name=\"cfg\">\n"
+            + "    <http:listener-connection host=\"0.0.0.0\" port=\"8081\"/>\n"
+            + "  </http:listener-config>\n"
+            + "  <flow name=\"main\" doc:name=\"Main\">\n"
+            + "    <http:listener config-ref=\"cfg\" path=\"/api\"/>\n"
+            + "    <Logger level=\"INFO\" message=\"Done\"/>\n"
+            + "    <logger level=\"DEBUG\"/>\n"
+            + "    <logger message=\"CAFÉ\"/>\n"
+            + "    <set-variable value=\"SECRET\" doc:name=\"Set\"/>\n"
+            + "    <db:select config-ref=\"db\"/>\n"
+            + "  </flow>\n"
+            + "</mule>\n";
+
+    private static final List<String> ELEMENTS = Arrays.asList("mule", "flow", "logger", "Logger", "set-variable",
+            "db:select", "http:listener-connection", "nope");
+    private static final List<String> ATTRIBUTES = Arrays.asList("name", "doc:name", "NAME", "level", "message",
+            "config-ref", "value", "port", "xmlns", "nope");
+    private static final List<String> VALUES = Arrays.asList("INFO", "info", "cfg", "SECRET", "api", "8081",
+            "doc:name", "café", "CAF", "=", "nope");
+
+    @TempDir
+    Path tempDir;
+
+    private int projects;
+
+    @Test
+    void attributeExistsMatchesRegex() throws Exception {
+        for (String element : ELEMENTS) {
+            for (String attribute : ATTRIBUTES) {
+                assertEquals(attributeExistsRegex(CORPUS, element, attribute),
+                        run(CORPUS, params("ATTRIBUTE_EXISTS", "elementName", element, "requiredAttribute", attribute)),
+                        element + " " + attribute);
+            }
+        }
+    }
+
+    @Test
+    void forbiddenValueMatchesRegex() throws Exception {
+        for (String element : ELEMENTS) {
+            for (String value : VALUES) {
+                assertEquals(forbiddenValueRegex(CORPUS, element, value),
+                        run(CORPUS, params("FORBIDDEN_VALUE", "elementName", element, "forbiddenValue", value)),
+                        element + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void forbiddenAttributeMatchesRegex() throws Exception {
+        List<String> elements = Arrays.asList("mule", "flow", "logger", "Logger", "select", "db:select",
+                "listener", "http:listener", "listener-connection", "nope");
+        for (String element : elements) {
+            for (String attribute : ATTRIBUTES) {
+                assertEquals(forbiddenAttributeRegex(CORPUS, element, attribute),
+                        run(CORPUS, params("FORBIDDEN_ATTRIBUTE", "elements", List.of(element), "attributes",
+                                List.of(attribute))),
+                        element + " " + attribute);
+            }
+        }
+    }
+
+    @Test
+    void ignoresCommentsCdataAndMultiLineTags() throws Exception {
+        String content = "<mule>\n"
+                + "  <!-- <logger/> -->\n"
+                + "  <set-payload><![CDATA[<logger/>]]></set-payload>\n"
+                + "  <logger\n"
+                + "      level=\"INFO\"/>\n"
+                + "</mule>\n";
+        // The regex saw the commented and CDATA tags, and could not look past the line end
+        assertFalse(attributeExistsRegex(content, "logger", "level"));
+        assertTrue(run(content, params("ATTRIBUTE_EXISTS", "elementName", "logger", "requiredAttribute", "level")));
+    }
+
+    @Test
+    void readsQuotedGreaterThanInValues() throws Exception {
+        // The regexes stopped at the '>' in the value and missed the attribute after it
+        String content = "<mule><logger message=\"a > b\" level=\"SECRET\"/></mule>";
+        assertTrue(forbiddenValueRegex(content, "logger", "SECRET"));
+        assertFalse(run(content, params("FORBIDDEN_VALUE", "elementName", "logger", "forbiddenValue", "SECRET")));
+        assertTrue(forbiddenAttributeRegex(content, "logger", "level"));
+        assertFalse(run(content, params("FORBIDDEN_ATTRIBUTE", "elements", List.of("logger"), "attributes",
+                List.of("level"))));
+    }
+
+    @Test
+    void matchesWholeNames() throws Exception {
+        // The regexes matched names that start or end with the configured name
+        String content = "<mule><flow-ref basePath=\"/\" name=\"x\"/><Loggers/></mule>";
+        assertFalse(attributeExistsRegex(content, "flow", "doc:name"));
+        assertFalse(forbiddenValueRegex(content, "flow", "x"));
+        assertFalse(forbiddenAttributeRegex(content, "flow-ref", "path"));
+        assertTrue(run(content, params("ATTRIBUTE_EXISTS", "elementName", "flow", "requiredAttribute", "doc:name")));
+        assertTrue(run(content, params("FORBIDDEN_VALUE", "elementName", "flow", "forbiddenValue", "x")));
+        assertTrue(run(content, params("FORBIDDEN_ATTRIBUTE", "elements", List.of("flow-ref"), "attributes",
+                List.of("path"))));
+    }
+
+    // The regexes of the former implementation; true if the check passed
+
+    private static boolean attributeExistsRegex(String content, String element, String attribute) {
+        Pattern violation = Pattern.compile(String.format("(?i)<(%s)(?!.*\\b%s\\s*=)[^>]*>",
+                Pattern.quote(element), Pattern.quote(attribute)));
+        Pattern exists = Pattern.compile(String.format("<%s", Pattern.quote(element)));
+        return !exists.matcher(content).find() || !violation.matcher(content).find();
+    }
+
+    private static boolean forbiddenValueRegex(String content, String element, String value) {
+        return !Pattern.compile(String.format("(?i)<%s[^>]*?%s[^>]*?>", Pattern.quote(element),
+                Pattern.quote(value))).matcher(content).find();
+    }
+
+    private static boolean forbiddenAttributeRegex(String content, String element, String attribute) {
+        return !Pattern.compile(String.format("(?si)<[a-zA-Z0-9_-]*:?%s\\s+[^>]*?%s\\s*=",
+                Pattern.quote(element), Pattern.quote(attribute))).matcher(content).find();
+    }
+
+    private static Map<String, Object> params(String validationType, Object... entries) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("validationType", validationType);
+        for (int i = 0; i < entries.length; i += 2) {
+            params.put((String) entries[i], entries[i + 1]);
+        }
+        return params;
+    }
+
+    private boolean run(String content, Map<String, Object> params) throws Exception {
+        Path projectRoot = tempDir.resolve("project" + projects++);
+        Path muleSources = Files.createDirectories(projectRoot.resolve("src/main/mule"));
+        Files.write(muleSources.resolve("app.xml"), content.getBytes(StandardCharsets.UTF_8));
+
+        Check check = new Check();
+        check.setType("GENERIC_XML_VALIDATION");
+        check.setParams(params);
+        try (ProjectContext context = new ProjectContext(projectRoot, ProjectFileIndex.build(projectRoot),
+                new FileContentCache())) {
+            CheckResult result = new GenericXmlValidationCheck().execute(context, new CompiledCheck(check, "TEST"));
+            return result.passed;
+        }
+    }
+}
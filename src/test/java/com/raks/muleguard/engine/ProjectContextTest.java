@@ -0,0 +1,86 @@
+package com.raks.muleguard.engine;
+
+import com.raks.muleguard.model.Check;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the fused literal token scan of {@link ProjectContext#findLiteralTokens}.
+ */
+class ProjectContextTest {
+
+    @TempDir
+    Path projectRoot;
+
+    @Test
+    void readsEachFileOnceForAllTokenChecks() throws Exception {
+        Path file = Files.write(projectRoot.resolve("app.xml"),
+                "<flow name=\"main\"><logger/></flow>".getBytes(StandardCharsets.UTF_8));
+        List<CompiledCheck> checks = compile(Arrays.asList("flow", "nope"), Arrays.asList("logger", "flow"));
+
+        // Nothing is cached, so every read of the file is a miss
+        FileContentCache contentCache = new FileContentCache(0);
+        try (ProjectContext context = new ProjectContext(projectRoot, ProjectFileIndex.build(projectRoot),
+                contentCache)) {
+            assertEquals(bits(0), context.findLiteralTokens(checks.get(0), file, false));
+            assertEquals(bits(0, 1), context.findLiteralTokens(checks.get(1), file, true));
+            assertEquals(bits(0, 1), context.findLiteralTokens(checks.get(1), file, false));
+        }
+        assertEquals(1, contentCache.getMisses());
+    }
+
+    @Test
+    void failsOnMalformedInputOnlyWhenReadStrictly() throws Exception {
+        byte[] bytes = "<flow name=\"café\"/>".getBytes(StandardCharsets.ISO_8859_1);
+        Path file = Files.write(projectRoot.resolve("app.xml"), bytes);
+
+        for (boolean lenientFirst : new boolean[] { true, false }) {
+            List<CompiledCheck> checks = compile(Arrays.asList("flow"), Arrays.asList("name", "caf"));
+            try (ProjectContext context = new ProjectContext(projectRoot, ProjectFileIndex.build(projectRoot),
+                    new FileContentCache(0))) {
+                if (lenientFirst) {
+                    assertEquals(bits(0, 1), context.findLiteralTokens(checks.get(1), file, true));
+                }
+                assertThrows(MalformedInputException.class,
+                        () -> context.findLiteralTokens(checks.get(0), file, false));
+                assertEquals(bits(0), context.findLiteralTokens(checks.get(0), file, true));
+                assertEquals(bits(0, 1), context.findLiteralTokens(checks.get(1), file, true));
+            }
+        }
+    }
+
+    private static List<CompiledCheck> compile(List<String> first, List<String> second) {
+        List<CompiledCheck> checks = Arrays.asList(compiled(first), compiled(second));
+        FusedTokenScanner.build(checks);
+        return checks;
+    }
+
+    private static CompiledCheck compiled(List<String> tokens) {
+        Check check = new Check();
+        check.setType("GENERIC_TOKEN_SEARCH_REQUIRED");
+        check.setParams(new HashMap<>());
+        CompiledCheck compiled = new CompiledCheck(check, "TEST");
+        compiled.setLiteralTokens(tokens, false);
+        return compiled;
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int index : indices) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
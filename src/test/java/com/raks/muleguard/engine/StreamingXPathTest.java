@@ -0,0 +1,146 @@
+package com.raks.muleguard.engine;
+
+import com.raks.muleguard.model.Check;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Compares the streaming evaluation of {@link StreamingXPath} (through
+ * {@link FusedXPathMatcher} and {@link ProjectContext#findXPathMatches}) with
+ * the DOM XPath evaluation it replaces.
+ */
+class StreamingXPathTest {
+
+    private static final String PLAIN = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<root>\n"
+            + "  <flow name=\"main\">\n"
+            + "    <logger level=\"INFO\" message=\"a &gt; b\"/>\n"
+            + "    <flow-ref name=\"sub\"/>\n"
+            + "    <choice><when expression=\"#[true]\"><logger level=\"DEBUG\"/></when></choice>\n"
+            + "  </flow>\n"
+            + "  <sub-flow name=\"sub\"><logger/></sub-flow>\n"
+            + "  <flow name=\"other\"><flow name=\"nested\"><flow/></flow></flow>\n"
+            + "  <!-- <flow name=\"commented\"/> -->\n"
+            + "  <text><![CDATA[<flow name=\"cdata\"/>]]></text>\n"
+            + "</root>\n";
+
+    private static final String MULE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<mule xmlns=\"http://www.mulesoft.org/schema/mule/core\"\n"
+            + "      xmlns:http=\"http://www.mulesoft.org/schema/mule/http\"\n"
+            + "      xmlns:doc=\"http://www.mulesoft.org/schema/mule/documentation\">\n"
+            + "  <http:listener-config name=\"cfg\">\n"
+            + "    <http:listener-connection host=\"0.0.0.0\" port=\"8081\"/>\n"
+            + "  </http:listener-config>\n"
+            + "  <flow name=\"api-main\" doc:name=\"Main\">\n"
+            + "    <http:listener config-ref=\"cfg\" path=\"/api/*\" doc:id=\"1\"/>\n"
+            + "    <logger level=\"INFO\"/>\n"
+            + "  </flow>\n"
+            + "  <plain xmlns=\"\" name=\"x\" id=\"2\"><flow/><inner xmlns:doc=\"urn:other\"/></plain>\n"
+            + "</mule>\n";
+
+    /** Expressions within the streamed subset, evaluated on both documents */
+    private static final List<String> STREAMED = Arrays.asList(
+            // Child and descendant steps
+            "/root", "/mule", "/flow", "/*", "/*/*", "//*", "//flow", "/root/flow", "/root//logger",
+            "//flow//logger", "//flow/logger", "//flow/flow", "//flow//flow", "//when/logger", "//choice//*",
+            "/root/flow/flow/flow", "//plain", "//plain/flow", "//plain//*", "//inner", "/*//flow",
+            // Attribute predicates
+            "//flow[@name]", "//flow[@name='main']", "//flow[@name=\"nested\"]", "//flow[@name='nope']",
+            "//*[@level='DEBUG']", "//logger[@message='a > b']", "//*[@*]", "//inner[@*]", "//*[@id]",
+            "//*[@name='cfg']", "//flow[@name][@nope]", "//*[ @level = 'INFO' ]",
+            // Name predicates, namespaces
+            "//*[local-name()='flow']", "//*[local-name()='listener'][@config-ref]",
+            "//*[local-name()='listener' and @config-ref='cfg']", "//*[name()='http:listener']",
+            "//*[name()='flow']", "//*[name()='listener']", "//*[local-name()='mule']/*",
+            "//*[local-name()='listener-connection'][@port='8081']",
+            "//*[local-name()='flow']//*[local-name()='listener']",
+            "/*[local-name()='mule']/*[local-name()='flow']/*[local-name()='logger']");
+
+    @TempDir
+    Path projectRoot;
+
+    @Test
+    void streamedCountsMatchDom() throws Exception {
+        for (String xpath : STREAMED) {
+            assertNotNull(StreamingXPath.compile(xpath), "Not in the streamed subset: " + xpath);
+        }
+        Path plain = write("plain.xml", PLAIN);
+        Path mule = write("mule.xml", MULE);
+
+        CompiledCheck check = compile(STREAMED);
+        try (ProjectContext context = new ProjectContext(projectRoot, ProjectFileIndex.build(projectRoot),
+                new FileContentCache())) {
+            for (Path file : Arrays.asList(plain, mule)) {
+                int[] streamed = context.findXPathMatches(check, file);
+                Document doc = context.getXmlDocuments().get(file);
+                for (int i = 0; i < STREAMED.size(); i++) {
+                    String xpath = STREAMED.get(i);
+                    NodeList nodes = (NodeList) check.getXPath(xpath).evaluate(doc, XPathConstants.NODESET);
+                    assertEquals(nodes.getLength(), streamed[i], xpath + " on " + file.getFileName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void existenceMatchesDomWhenStoppingEarly() throws Exception {
+        Path mule = write("mule.xml", MULE);
+        List<String> xpaths = Arrays.asList("//flow", "//*[local-name()='listener']", "//nope");
+
+        for (boolean any : new boolean[] { true, false }) {
+            CompiledCheck check = compile(xpaths);
+            try (ProjectContext context = new ProjectContext(projectRoot, ProjectFileIndex.build(projectRoot),
+                    new FileContentCache())) {
+                BitSet all = new BitSet();
+                all.set(0, xpaths.size());
+                int[] streamed = context.findXPathMatches(check, mule, all, any);
+                Document doc = context.getXmlDocuments().get(mule);
+                for (int i = 0; i < xpaths.size(); i++) {
+                    NodeList nodes = (NodeList) check.getXPath(xpaths.get(i)).evaluate(doc, XPathConstants.NODESET);
+                    if (!any || streamed[i] > 0) {
+                        assertEquals(nodes.getLength() > 0, streamed[i] > 0, xpaths.get(i) + ", any=" + any);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void expressionsOutsideTheSubsetAreLeftToTheDom() {
+        for (String xpath : Arrays.asList("", "flow", "//flow[1]", "//http:listener", "//flow/@name",
+                "count(//flow)", "//flow/..", "//flow[contains(@name,'a')]", "//flow | //sub-flow",
+                "//flow[@name!='x']", "//*[@doc:name]", "//flow[@name='a' or @name='b']", "/child::flow",
+                "//flow[not(@name)]", "//flow[logger]", "//*[local-name()='flow'", "//flow[@name='x]")) {
+            assertNull(StreamingXPath.compile(xpath), xpath);
+        }
+    }
+
+    private CompiledCheck compile(List<String> xpaths) {
+        Check check = new Check();
+        check.setType("XML_XPATH_EXISTS");
+        check.setParams(new HashMap<>());
+        CompiledCheck compiled = new CompiledCheck(check, "TEST");
+        compiled.setStreamingXPaths(xpaths);
+        FusedXPathMatcher.build(List.of(compiled));
+        return compiled;
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.write(projectRoot.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package com.raks.muleguard.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares {@link TokenMatcher} with the {@code String.contains} calls it
+ * replaces: {@code text.contains(token)}, and
+ * {@code text.toLowerCase().contains(token.toLowerCase())} when ignoring case.
+ */
+class TokenMatcherTest {
+
+    private static final List<String> TEXTS = Arrays.asList(
+            "", "ushers", "she sells seashells", "<logger level=\"ERROR\"/>", "Error: Connection REFUSED",
+            "CAFÉ café Café", "STRASSE straße", "İstanbul istanbul", "ΟΔΟΣ οδος", "ΣΑΣ σας",
+            "𐐀 𐐨", "aaaa", "abababab", "ȧ i̇");
+
+    private static final List<String> TOKENS = Arrays.asList(
+            "", "he", "she", "his", "hers", "sh", "s", "ells", "seashells", "error", "ERROR", "Error:",
+            "refused", "level=\"error\"", "café", "CAFÉ", "é", "straße", "STRASSE", "ss", "istanbul", "İ", "i̇",
+            "i", "σ", "ς", "οδος", "ΟΔΟΣ", "σας", "𐐨", "𐐀", "aa", "aaa", "aaaaa", "abab", "bab",
+            "ba", "̇");
+
+    @Test
+    void findsWhatContainsFinds() {
+        TokenMatcher sensitive = TokenMatcher.compile(TOKENS, false);
+        TokenMatcher insensitive = TokenMatcher.compile(TOKENS, true);
+        for (String text : TEXTS) {
+            assertEquals(expected(text, TOKENS, false), sensitive.findAll(text), text);
+            assertEquals(expected(text, TOKENS, true), insensitive.findAll(text), "ignoring case: " + text);
+        }
+    }
+
+    @Test
+    void findsWhatContainsFindsInRandomTexts() {
+        // Overlapping tokens over a small alphabet, with characters whose case
+        // mapping depends on context or changes the length
+        String alphabet = "abAB iIİıΣσςé̇";
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<String> tokens = new ArrayList<>();
+            for (int i = random.nextInt(8); i >= 0; i--) {
+                tokens.add(randomText(random, alphabet, 4));
+            }
+            TokenMatcher sensitive = TokenMatcher.compile(tokens, false);
+            TokenMatcher insensitive = TokenMatcher.compile(tokens, true);
+            for (int i = 0; i < 20; i++) {
+                String text = randomText(random, alphabet, 24);
+                assertEquals(expected(text, tokens, false), sensitive.findAll(text), tokens + " in " + text);
+                assertEquals(expected(text, tokens, true), insensitive.findAll(text),
+                        "ignoring case: " + tokens + " in " + text);
+            }
+        }
+    }
+
+    @Test
+    void duplicateTokensAreReportedAtEachIndex() {
+        List<String> tokens = Arrays.asList("flow", "FLOW", "flow", "");
+        assertEquals(expected("<flow/>", tokens, false), TokenMatcher.compile(tokens, false).findAll("<flow/>"));
+        BitSet all = new BitSet();
+        all.set(0, 4);
+        assertEquals(all, TokenMatcher.compile(tokens, true).findAll("<flow/>"));
+    }
+
+    @Test
+    void stopsOnceAllTokensAreFound() {
+        TokenMatcher matcher = TokenMatcher.compile(Arrays.asList("a", "b"), false);
+        BitSet found = new BitSet();
+        found.set(0);
+        assertTrue(matcher.findAll("xxb", found));
+        assertEquals(2, found.cardinality());
+
+        found = new BitSet();
+        assertFalse(matcher.findAll("xxb", found));
+        assertEquals(expected("xxb", Arrays.asList("a", "b"), false), found);
+    }
+
+    private static BitSet expected(String text, List<String> tokens, boolean ignoreCase) {
+        BitSet found = new BitSet();
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean contains = ignoreCase
+                    ? text.toLowerCase().contains(tokens.get(i).toLowerCase())
+                    : text.contains(tokens.get(i));
+            if (contains) {
+                found.set(i);
+            }
+        }
+        return found;
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+            if (random.nextInt(20) == 0) {
+                // DESERET CAPITAL/SMALL LETTER LONG I, a supplementary case pair
+                text.append(random.nextBoolean() ? "𐐀" : "𐐨");
+            } else {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+        }
+        return text.toString();
+    }
+}
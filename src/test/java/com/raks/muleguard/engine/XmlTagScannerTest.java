@@ -0,0 +1,136 @@
+package com.raks.muleguard.engine;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the start tags found by {@link XmlTagScanner} with the elements and
+ * attributes of the DOM of the same document, and tests the name and value
+ * matching used by the XML checks.
+ */
+class XmlTagScannerTest {
+
+    private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE mule [\n"
+            + "  <!ENTITY env \"dev\">\n"
+            + "  <!ELEMENT mule ANY>\n"
+            + "]>\n"
+            + "<mule xmlns=\"http://www.mulesoft.org/schema/mule/core\"\n"
+            + "      xmlns:http=\"http://www.mulesoft.org/schema/mule/http\"\n"
+            + "      xmlns:doc=\"http://www.mulesoft.org/schema/mule/documentation\">\n"
+            + "  <!-- <flow name=\"commented\"/> -->\n"
+            + "  <?processing <flow name=\"instruction\"/> ?>\n"
+            + "  <http:listener-config name='cfg'>\n"
+            + "    <http:listener-connection host = \"0.0.0.0\"\n"
+            + "        port=\"8081\" />\n"
+            + "  </http:listener-config>\n"
+            + "  <flow name=\"main\" doc:name=\"Main\">\n"
+            + "    <logger level=\"INFO\" message=\"a > b\" doc:id='x\"y'/>\n"
+            + "    <set-payload value=\"&lt;flow name=&quot;escaped&quot;/&gt;\"/>\n"
+            + "    <ee:transform xmlns:ee=\"http://www.mulesoft.org/schema/mule/ee/core\">\n"
+            + "      <ee:message><ee:set-payload><![CDATA[<flow name=\"cdata\"/> ]]></ee:set-payload></ee:message>\n"
+            + "    </ee:transform>\n"
+            + "    <flow-ref name=\"sub\"/><empty></empty>\n"
+            + "  </flow>\n"
+            + "</mule>\n";
+
+    @Test
+    void tagsAndAttributesMatchDom() throws Exception {
+        Document doc = SharedParsers.documentBuilder().parse(new InputSource(new StringReader(DOCUMENT)));
+        NodeList elements = doc.getElementsByTagName("*");
+
+        List<String> domTags = new ArrayList<>();
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            Map<String, String> attributes = new TreeMap<>();
+            NamedNodeMap map = element.getAttributes();
+            for (int j = 0; j < map.getLength(); j++) {
+                Attr attribute = (Attr) map.item(j);
+                attributes.put(attribute.getName(), attribute.getValue());
+            }
+            domTags.add(element.getTagName() + " " + attributes);
+        }
+
+        List<String> scannedTags = new ArrayList<>();
+        XmlTagScanner.scan(DOCUMENT, tag -> {
+            Map<String, String> attributes = new TreeMap<>();
+            for (int j = 0; j < tag.getAttributeCount(); j++) {
+                attributes.put(tag.getAttributeName(j), unescape(tag.getAttributeValue(j)));
+            }
+            scannedTags.add(tag.getName() + " " + attributes);
+            return true;
+        });
+
+        assertEquals(domTags, scannedTags);
+    }
+
+    @Test
+    void matchesNamesAndTagText() {
+        List<String> results = new ArrayList<>();
+        XmlTagScanner.scan("<http:Listener config-ref=\"cfg\" doc:name=\"A > B\"/>", tag -> {
+            results.add(tag.nameEquals("http:Listener", false) + " " + tag.nameEquals("http:listener", false)
+                    + " " + tag.nameEquals("HTTP:LISTENER", true) + " " + tag.nameEquals("Listener", true)
+                    + " " + tag.localNameEquals("LISTENER", true) + " " + tag.localNameEquals("listen", true));
+            results.add(tag.hasAttribute("config-ref", false) + " " + tag.hasAttribute("CONFIG-REF", true)
+                    + " " + tag.hasAttribute("name", false) + " " + tag.hasAttribute("doc:name", false)
+                    + " " + tag.hasAttribute("config", true) + " " + tag.hasAttribute("ref", true));
+            results.add(tag.bodyContains("a > b", true) + " " + tag.bodyContains("A > B", false)
+                    + " " + tag.bodyContains("config-ref=\"CFG\"", true) + " " + tag.bodyContains("http", true));
+            return true;
+        });
+        assertEquals(List.of("true false true false true false", "true true true true false false",
+                "true true true false"), results);
+    }
+
+    @Test
+    void ignoresCaseOfAsciiLettersOnlyLikeARegex() {
+        boolean[] results = new boolean[3];
+        XmlTagScanner.scan("<logger message=\"CAFÉ\" ÉTAT=\"1\"/>", tag -> {
+            results[0] = tag.bodyContains("caf", true);
+            results[1] = tag.bodyContains("café", true);
+            results[2] = tag.hasAttribute("état", true);
+            return true;
+        });
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertFalse(results[2]);
+    }
+
+    @Test
+    void stopsWhenTheHandlerReturnsFalseOrATagIsNotClosed() {
+        List<String> names = new ArrayList<>();
+        XmlTagScanner.scan("<a/><b/><c/>", tag -> {
+            names.add(tag.getName());
+            return !tag.nameEquals("b", false);
+        });
+        assertEquals(List.of("a", "b"), names);
+
+        names.clear();
+        XmlTagScanner.scan("<a/><!-- <b/> <c/><d x=\"1", tag -> names.add(tag.getName()));
+        assertEquals(List.of("a"), names);
+
+        names.clear();
+        XmlTagScanner.scan("<a/><b x=\"1> <c/>", tag -> names.add(tag.getName()));
+        assertEquals(List.of("a"), names);
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+}